@@ -0,0 +1,21 @@
+package com.aigreentick.services.contacts.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class QueryExecutorConfig {
+
+    /**
+     * Virtual-thread executor for independent read queries that run concurrently
+     * (list-page enrichment). Each task blocks on JDBC, so a thread per task is cheap;
+     * the real concurrency limit is the Hikari pool.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService queryExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,89 @@
+package com.aigreentick.services.contacts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read-replica routing, enabled by setting contacts.datasource.replica.url.
+ *
+ * Replaces the auto-configured pool with two Hikari pools — primary (spring.datasource.*)
+ * and replica (contacts.datasource.replica.*) — behind one lazy routing DataSource that
+ * JPA and every repository use. Read-only transactions (@Transactional(readOnly = true),
+ * read-only TransactionTemplates) go to the replica while it is within max-lag of the
+ * primary; read-write transactions, and read-only work joining one, use the primary.
+ *
+ * Without the property none of this is created and the single auto-configured pool is used.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "contacts.datasource.replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("contacts.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${contacts.datasource.replica.url}") String url,
+            @Value("${contacts.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${contacts.datasource.replica.password:${spring.datasource.password:}}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${contacts.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${contacts.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${contacts.datasource.replica.allow-standalone:false}") boolean allowStandalone,
+            MeterRegistry meterRegistry
+    ) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLag, lagQuery, allowStandalone, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        log.info("Read-only transactions routed to the read replica when within lag");
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry));
+    }
+}
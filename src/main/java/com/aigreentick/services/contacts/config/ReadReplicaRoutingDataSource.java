@@ -0,0 +1,83 @@
+package com.aigreentick.services.contacts.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica while ReplicaLagMonitor
+ * reports it usable, everything else to the primary. A replica connection that cannot be
+ * obtained takes the replica out of rotation and is replaced by a primary connection.
+ *
+ * The read-only flag is only known once the transaction has begun, so this must sit
+ * behind a LazyConnectionDataSourceProxy, which defers the physical connection to the
+ * first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReadReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReplicaLagMonitor lagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.replicaReads = Counter.builder("contacts.datasource.reads")
+                .description("Connections of read-only transactions, by the datasource that served them")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("contacts.datasource.reads")
+                .description("Connections of read-only transactions, by the datasource that served them")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isUsable()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                lagMonitor.markUnavailable(e);
+            }
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials are the pools' own; per-call credentials are not supported by Hikari
+        return getConnection();
+    }
+}
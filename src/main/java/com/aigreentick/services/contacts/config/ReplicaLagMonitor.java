@@ -0,0 +1,122 @@
+package com.aigreentick.services.contacts.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Decides whether the read replica may serve read-only transactions: it must answer the
+ * lag query, and report no more than maxLag behind the primary. Checked every
+ * contacts.datasource.replica.check-interval-ms; until the first check passes, and after
+ * any failure, reads stay on the primary.
+ *
+ * Lag comes from SHOW REPLICA STATUS (Seconds_Behind_Source, or Seconds_Behind_Master on
+ * older servers / MariaDB); a null lag means replication is stopped. No row means the
+ * server is not a replica at all — a misconfigured url, or a replica that was reset — and
+ * keeps it out of rotation, unless allowStandalone
+ * (contacts.datasource.replica.allow-standalone) opts in to a standalone stand-in for local
+ * testing, which then counts as in sync. A custom lagQuery (e.g. against a pt-heartbeat
+ * table) must return the lag in seconds as the first column of its first row.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final boolean allowStandalone;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(
+            DataSource replica,
+            Duration maxLag,
+            String lagQuery,
+            boolean allowStandalone,
+            MeterRegistry meterRegistry
+    ) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(5);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.allowStandalone = allowStandalone;
+
+        Gauge.builder("contacts.datasource.replica.lag", this, m -> m.lagSeconds)
+                .description("Replica lag behind the primary at the last check (NaN when unknown)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("contacts.datasource.replica.usable", this, m -> m.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /**
+     * Take the replica out of rotation until the next successful check.
+     */
+    public void markUnavailable(SQLException cause) {
+        if (usable) log.warn("Read replica unavailable, routing reads to primary: {}", cause.getMessage());
+        usable = false;
+    }
+
+    @Scheduled(fixedDelayString = "${contacts.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        Double lag;
+        try {
+            lag = lagQuery == null || lagQuery.isBlank()
+                    ? replica.query("SHOW REPLICA STATUS", this::replicaStatusLag)
+                    : replica.query(lagQuery, rs -> rs.next() ? nullableDouble(rs, 1) : null);
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            update(false, "lag check failed: " + e.getMessage());
+            return;
+        }
+
+        lagSeconds = lag != null ? lag : Double.NaN;
+        if (lag == null) {
+            update(false, "replication is not running, or the server is not a replica");
+        } else if (lag > maxLag.toSeconds()) {
+            update(false, "lag " + lag.longValue() + " s exceeds " + maxLag.toSeconds() + " s");
+        } else {
+            update(true, "lag " + lag.longValue() + " s");
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private void update(boolean nowUsable, String reason) {
+        if (nowUsable != usable) {
+            log.info("Read replica {} — {}", nowUsable ? "in rotation" : "out of rotation", reason);
+        }
+        usable = nowUsable;
+    }
+
+    private Double replicaStatusLag(ResultSet rs) throws SQLException {
+        if (!rs.next()) return allowStandalone ? 0.0 : null;   // not a replica
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String column = meta.getColumnLabel(i);
+            if (column.equalsIgnoreCase("Seconds_Behind_Source") || column.equalsIgnoreCase("Seconds_Behind_Master")) {
+                return nullableDouble(rs, i);
+            }
+        }
+        return null;
+    }
+
+    private static Double nullableDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,12 @@
+package com.aigreentick.services.contacts.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background maintenance (e.g. PhoneBloomFilters rebuilds).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -32,6 +32,7 @@ public class ContactController {
     private final ContactService contactService;
     private final ContactImportService contactImportService;
     private final ContactExportService contactExportService;
+    private final ContactFacetService contactFacetService;
 
     /**
      * Create new contact
@@ -59,11 +60,12 @@ public class ContactController {
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getContactById(
             @PathVariable Long id,
+            @RequestParam(required = false) String fields,
             @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
     ) {
         log.info("Fetching contact: {} for org: {}", id, organizationId);
 
-        ContactResponse contact = contactService.getContactById(id, organizationId);
+        ContactResponse contact = contactService.getContactById(id, organizationId, ContactFields.parse(fields));
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -83,6 +85,8 @@ public class ContactController {
             @RequestParam(required = false) String tagIds,
             @RequestParam(required = false) String attributeKey,
             @RequestParam(required = false) String attributeValue,
+            @RequestParam(defaultValue = "CONTAINS") ContactSearchRequest.AttributeMatch attributeMatch,
+            @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "50") Integer size,
             @RequestParam(defaultValue = "updatedAt") String sortBy,
@@ -97,6 +101,8 @@ public class ContactController {
         searchRequest.setSource(source);
         searchRequest.setAttributeKey(attributeKey);
         searchRequest.setAttributeValue(attributeValue);
+        searchRequest.setAttributeMatch(attributeMatch);
+        searchRequest.setFields(fields);
         searchRequest.setPage(page);
         searchRequest.setSize(size);
         searchRequest.setSortBy(sortBy);
@@ -264,6 +270,28 @@ public class ContactController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Facet counts (per source, per tag, top values of one attribute) for a search
+     */
+    @PostMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(
+            @Valid @RequestBody ContactSearchRequest searchRequest,
+            @RequestParam(required = false) String facetAttribute,
+            @RequestParam(required = false) Integer attributeLimit,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        log.info("Computing facets for org: {}", organizationId);
+
+        ContactFacetResponse facets =
+                contactFacetService.getFacets(searchRequest, organizationId, facetAttribute, attributeLimit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", facets);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get contact count
      */
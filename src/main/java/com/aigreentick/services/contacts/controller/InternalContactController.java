@@ -2,14 +2,27 @@ package com.aigreentick.services.contacts.controller;
 
 import com.aigreentick.services.contacts.dto.request.InternalAttributeRequest;
 import com.aigreentick.services.contacts.dto.request.InternalResolveRequest;
+import com.aigreentick.services.contacts.dto.response.AttributeJobResponse;
+import com.aigreentick.services.contacts.dto.response.ColumnarAttributesResponse;
 import com.aigreentick.services.contacts.dto.response.ContactInfo;
+import com.aigreentick.services.contacts.dto.response.PageResponse;
+import com.aigreentick.services.contacts.service.AttributeJobService;
 import com.aigreentick.services.contacts.service.InternalContactService;
+import com.aigreentick.services.contacts.util.CSVUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +35,7 @@ import java.util.Map;
  * │    e.g. "919876543210" not "+919876543210"                              │
  * │  • All endpoints internal only — restrict at network/gateway level      │
  * │  • Target p99 < 2 s (synchronous during campaign prep)                  │
+ * │    measured by contacts.internal.* timers, see /actuator/internalslo    │
  * │  • 4xx → campaign marked FAILED                                         │
  * │  • 5xx → infrastructure failure, caller retries / alerts               │
  * └─────────────────────────────────────────────────────────────────────────┘
@@ -38,6 +52,8 @@ import java.util.Map;
  *   Rules:
  *     - Pure lookup — NO contacts are created or modified
  *     - Unknown phone numbers → OMITTED from the map
+ *     - "projectScoped": true → only contacts linked to projectId are returned; by default
+ *       (false) the whole organization is searched
  *
  * ─────────────────────────────────────────────────────────────────────────
  * POST /internal/contacts/attributes
@@ -65,6 +81,45 @@ import java.util.Map;
  *   Rules:
  *     - Lookup only — unknown phones OMITTED (NOT auto-created)
  *     - Missing attribute value → null  (spec: "null or omit, both fine")
+ *     - "projectScoped" as for /resolve
+ *
+ *   With "Accept: application/x-ndjson" the same contacts are streamed as one JSON object
+ *   per line, written and flushed chunk by chunk as they are loaded:
+ *     {"contactId":4001,"phoneNumber":"919876543210","attributes":[...]}
+ *     {"contactId":4002,"phoneNumber":"918765432109","attributes":[...]}
+ *   Errors after the first chunk cannot change the 200 status — the stream is cut short
+ *   instead, so consumers must treat a truncated last line as a failure.
+ *
+ *   With "Accept: application/vnd.aigreentick.attributes.columnar+json" keys are sent once
+ *   and each contact's values are positional (null when not stored):
+ *     {
+ *       "keys":         ["first_name", "city"],
+ *       "dictionary":   null,
+ *       "contactIds":   [4001, 4002],
+ *       "phoneNumbers": ["919876543210", "918765432109"],
+ *       "values":       [["Ashish", "Delhi"], ["Ravi", "Delhi"]]
+ *     }
+ *   ?dictionary=true sends every distinct value once and indexes into it instead:
+ *     "dictionary": ["Ashish", "Delhi", "Ravi"],  "values": [[0, 1], [2, 1]]
+ *
+ * ─────────────────────────────────────────────────────────────────────────
+ * POST /internal/contacts/attributes/jobs
+ *
+ *   For campaigns too large for the synchronous endpoint. Same JSON body as
+ *   /attributes, or multipart: file (CSV / one phone per line), attributeKeys, projectId,
+ *   projectScoped (optional, default false).
+ *
+ *   Response 202: { "jobId": "…", "status": "PENDING", "totalPhones": 1000000, … }
+ *
+ *   GET /internal/contacts/attributes/jobs/{jobId}           → status / progress
+ *   GET /internal/contacts/attributes/jobs/{jobId}/results   → ?page=0&size=1000 pages of
+ *       the /attributes objects (PageResponse), or all of them as NDJSON with
+ *       "Accept: application/x-ndjson". 409 until the job is COMPLETED.
+ *
+ *   Rules:
+ *     - Same lookup contract as /attributes
+ *     - Jobs live in memory on the instance that accepted them: lost on restart and
+ *       expired an hour after completion → 404, caller resubmits
  * ─────────────────────────────────────────────────────────────────────────
  */
 @Slf4j
@@ -73,7 +128,12 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InternalContactController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String COLUMNAR = "application/vnd.aigreentick.attributes.columnar+json";
+
     private final InternalContactService internalContactService;
+    private final AttributeJobService attributeJobService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/resolve")
     public ResponseEntity<Map<String, Object>> resolveContacts(
@@ -85,6 +145,7 @@ public class InternalContactController {
 
         Map<String, Long> contacts = internalContactService.resolveContacts(
                 organizationId,
+                projectScope(request.getProjectId(), request.getProjectScoped()),
                 request.getPhoneNumbers()
         );
 
@@ -103,6 +164,7 @@ public class InternalContactController {
 
         List<ContactInfo> result = internalContactService.getAttributes(
                 organizationId,
+                projectScope(request.getProjectId(), request.getProjectScoped()),
                 request.getPhoneNumbers(),
                 request.getAttributeKeys()
         );
@@ -110,4 +172,141 @@ public class InternalContactController {
         // Plain array response — no wrapper envelope (matches spec exactly)
         return ResponseEntity.ok(result);
     }
+
+    @PostMapping(value = "/attributes", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAttributes(
+            @Valid @RequestBody InternalAttributeRequest request,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) {
+        log.info("Internal attributes (ndjson) — org: {}, project: {}, phones: {}, keys: {}",
+                organizationId, request.getProjectId(),
+                request.getPhoneNumbers().size(), request.getAttributeKeys().size());
+
+        StreamingResponseBody body = out -> internalContactService.streamAttributes(
+                organizationId,
+                projectScope(request.getProjectId(), request.getProjectScoped()),
+                request.getPhoneNumbers(),
+                request.getAttributeKeys(),
+                chunk -> writeLines(out, chunk)
+        );
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @PostMapping(value = "/attributes", produces = COLUMNAR)
+    public ResponseEntity<ColumnarAttributesResponse> getColumnarAttributes(
+            @Valid @RequestBody InternalAttributeRequest request,
+            @RequestHeader("X-Organization-ID") Long organizationId,
+            @RequestParam(defaultValue = "false") boolean dictionary
+    ) {
+        log.info("Internal attributes (columnar) — org: {}, project: {}, phones: {}, keys: {}, dictionary: {}",
+                organizationId, request.getProjectId(),
+                request.getPhoneNumbers().size(), request.getAttributeKeys().size(), dictionary);
+
+        ColumnarAttributesResponse result = internalContactService.getColumnarAttributes(
+                organizationId,
+                projectScope(request.getProjectId(), request.getProjectScoped()),
+                request.getPhoneNumbers(),
+                request.getAttributeKeys(),
+                dictionary
+        );
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(COLUMNAR))
+                .body(result);
+    }
+
+    @PostMapping(value = "/attributes/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AttributeJobResponse> submitAttributeJob(
+            @Valid @RequestBody InternalAttributeRequest request,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) {
+        log.info("Internal attribute job — org: {}, project: {}, phones: {}, keys: {}",
+                organizationId, request.getProjectId(),
+                request.getPhoneNumbers().size(), request.getAttributeKeys().size());
+
+        AttributeJobResponse job = attributeJobService.submit(
+                organizationId,
+                projectScope(request.getProjectId(), request.getProjectScoped()),
+                request.getPhoneNumbers(),
+                request.getAttributeKeys()
+        );
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @PostMapping(value = "/attributes/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AttributeJobResponse> submitAttributeJobFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("attributeKeys") List<String> attributeKeys,
+            @RequestParam("projectId") Long projectId,
+            @RequestParam(defaultValue = "false") boolean projectScoped,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) throws IOException {
+        log.info("Internal attribute job (file) — org: {}, project: {}, file: {}, keys: {}",
+                organizationId, projectId, file.getOriginalFilename(), attributeKeys.size());
+
+        AttributeJobResponse job = attributeJobService.submit(
+                organizationId,
+                projectScope(projectId, projectScoped),
+                CSVUtil.parsePhoneList(file),
+                attributeKeys
+        );
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/attributes/jobs/{jobId}")
+    public ResponseEntity<AttributeJobResponse> getAttributeJob(
+            @PathVariable String jobId,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) {
+        return ResponseEntity.ok(attributeJobService.getStatus(organizationId, jobId));
+    }
+
+    @GetMapping("/attributes/jobs/{jobId}/results")
+    public ResponseEntity<PageResponse<ContactInfo>> getAttributeJobResults(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "1000") int size,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) {
+        return ResponseEntity.ok(attributeJobService.getResults(organizationId, jobId, page, size));
+    }
+
+    @GetMapping(value = "/attributes/jobs/{jobId}/results", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAttributeJobResults(
+            @PathVariable String jobId,
+            @RequestHeader("X-Organization-ID") Long organizationId
+    ) {
+        // Fail with a proper status before streaming starts if the job is unknown or not done
+        attributeJobService.requireCompleted(organizationId, jobId);
+
+        StreamingResponseBody body = out -> attributeJobService.streamResults(
+                organizationId, jobId, chunk -> writeLines(out, chunk));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * The project to restrict lookups to, or null to search the whole organization.
+     */
+    private static Long projectScope(Long projectId, Boolean projectScoped) {
+        return Boolean.TRUE.equals(projectScoped) ? projectId : null;
+    }
+
+    private void writeLines(OutputStream out, List<ContactInfo> chunk) {
+        try {
+            for (ContactInfo info : chunk) {
+                // writeValueAsBytes, not writeValue(out): the latter closes the response stream
+                out.write(objectMapper.writeValueAsBytes(info));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Client stopped reading the attribute stream", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.aigreentick.services.contacts.controller;
+
+import com.aigreentick.services.contacts.service.InternalEndpointMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/internalslo — SLO burn of the internal endpoints, per endpoint / org size /
+ * input size and per stage (see InternalEndpointMetrics).
+ */
+@Component
+@Endpoint(id = "internalslo")
+@RequiredArgsConstructor
+public class InternalSloEndpoint {
+
+    private final InternalEndpointMetrics internalEndpointMetrics;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        return internalEndpointMetrics.sloReport();
+    }
+}
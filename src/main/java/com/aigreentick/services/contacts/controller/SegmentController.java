@@ -0,0 +1,152 @@
+package com.aigreentick.services.contacts.controller;
+
+import com.aigreentick.services.contacts.dto.request.SegmentCreateRequest;
+import com.aigreentick.services.contacts.dto.response.SegmentResponse;
+import com.aigreentick.services.contacts.service.SegmentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/contacts/segments")
+@RequiredArgsConstructor
+public class SegmentController {
+
+    private final SegmentService segmentService;
+
+    /**
+     * Create a saved segment and materialize its members
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSegment(
+            @Valid @RequestBody SegmentCreateRequest request,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        log.info("Creating segment: {} for org: {}", request.getName(), organizationId);
+
+        SegmentResponse segment = segmentService.createSegment(request, organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Segment created successfully");
+        response.put("data", segment);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List segments
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listSegments(
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        List<SegmentResponse> segments = segmentService.listSegments(organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", segments);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get segment by ID
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getSegment(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        SegmentResponse segment = segmentService.getSegment(id, organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", segment);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get segment member count
+     */
+    @GetMapping("/{id}/count")
+    public ResponseEntity<Map<String, Object>> countMembers(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        long count = segmentService.countMembers(id, organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", count);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Iterate segment member ids (pass the last id of a page as afterId for the next one)
+     */
+    @GetMapping("/{id}/members")
+    public ResponseEntity<Map<String, Object>> getMembers(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "1000") Integer limit,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        List<Long> contactIds = segmentService.getMemberIds(id, organizationId, afterId, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", contactIds);
+        response.put("nextAfterId", contactIds.isEmpty() ? null : contactIds.get(contactIds.size() - 1));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Recompute segment membership from scratch
+     */
+    @PostMapping("/{id}/rematerialize")
+    public ResponseEntity<Map<String, Object>> rematerialize(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        log.info("Rematerializing segment: {} for org: {}", id, organizationId);
+
+        SegmentResponse segment = segmentService.rematerialize(id, organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", segment);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Delete segment
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> deleteSegment(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Organization-ID", required = true) Long organizationId
+    ) {
+        log.info("Deleting segment: {} for org: {}", id, organizationId);
+
+        segmentService.deleteSegment(id, organizationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Segment deleted successfully");
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,36 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One attribute value of a listed contact, with its key already joined from the definition.
+ * valueJson is only selected when every other value column is empty (see the repository query).
+ */
+public record AttributeListRow(
+        Long contactId,
+        String attrKey,
+        String valueText,
+        Long valueNumber,
+        BigDecimal valueDecimal,
+        Boolean valueBool,
+        LocalDate valueDate,
+        LocalDateTime valueDatetime,
+        String valueJson
+) {
+
+    /**
+     * Display string, same precedence as ContactMapper uses for full entities.
+     */
+    public String displayValue() {
+        if (valueText != null && !valueText.isEmpty()) return valueText;
+        if (valueNumber != null) return valueNumber.toString();
+        if (valueDecimal != null) return valueDecimal.toString();
+        if (valueBool != null) return valueBool.toString();
+        if (valueDate != null) return valueDate.toString();
+        if (valueDatetime != null) return valueDatetime.toString();
+        if (valueJson != null) return valueJson;
+        return "";
+    }
+}
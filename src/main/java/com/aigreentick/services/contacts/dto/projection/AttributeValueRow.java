@@ -0,0 +1,36 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One requested attribute value of a contact, typed columns only (no entity, no timestamps).
+ * valueJson is only selected when every other value column is empty (see the repository query).
+ */
+public record AttributeValueRow(
+        Long contactId,
+        Long attributeDefinitionId,
+        String valueText,
+        Long valueNumber,
+        BigDecimal valueDecimal,
+        Boolean valueBool,
+        LocalDate valueDate,
+        LocalDateTime valueDatetime,
+        String valueJson
+) {
+
+    /**
+     * The stored value as a string, or null when every value column is empty.
+     */
+    public String value() {
+        if (valueText != null && !valueText.isEmpty()) return valueText;
+        if (valueNumber != null) return valueNumber.toString();
+        if (valueDecimal != null) return valueDecimal.toPlainString();
+        if (valueBool != null) return valueBool.toString();
+        if (valueDate != null) return valueDate.toString();
+        if (valueDatetime != null) return valueDatetime.toString();
+        if (valueJson != null && !valueJson.isEmpty()) return valueJson;
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+import com.aigreentick.services.contacts.entity.Contact;
+
+import java.time.LocalDateTime;
+
+/**
+ * The contact columns a list page shows — selected directly, no managed Contact entity.
+ */
+public record ContactListRow(
+        Long id,
+        String displayName,
+        String waPhoneE164,
+        Contact.Source source,
+        LocalDateTime lastSeenAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
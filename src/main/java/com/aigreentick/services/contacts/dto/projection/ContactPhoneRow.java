@@ -0,0 +1,10 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+/**
+ * Contact id for a phone number — the only columns phone resolution needs.
+ */
+public record ContactPhoneRow(
+        Long id,
+        String waPhoneE164
+) {
+}
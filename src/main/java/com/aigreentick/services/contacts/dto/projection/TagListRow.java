@@ -0,0 +1,12 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+/**
+ * One tag of a listed contact, joined from contact_tag_assignments to contact_tags.
+ */
+public record TagListRow(
+        Long contactId,
+        Long tagId,
+        String name,
+        String color
+) {
+}
@@ -0,0 +1,14 @@
+package com.aigreentick.services.contacts.dto.projection;
+
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
+
+/**
+ * An attribute value row that has only value_text, with its definition's data type —
+ * input of the typed column backfill.
+ */
+public record UntypedValueRow(
+        Long id,
+        String valueText,
+        AttributeDefinition.DataType dataType
+) {
+}
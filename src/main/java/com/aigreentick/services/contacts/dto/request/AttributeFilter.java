@@ -0,0 +1,58 @@
+package com.aigreentick.services.contacts.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Boolean filter tree over contact attributes, compiled by ContactSpecifications.matchesFilter.
+ *
+ * Example — city = Delhi AND age >= 25 AND plan IN (gold, platinum):
+ * {
+ *   "op": "AND",
+ *   "filters": [
+ *     { "op": "EQ",    "key": "city", "value": "Delhi" },
+ *     { "op": "RANGE", "key": "age",  "min": "25" },
+ *     { "op": "IN",    "key": "plan", "values": ["gold", "platinum"] }
+ *   ]
+ * }
+ *
+ * Values are strings; they are parsed according to the attribute's data type
+ * (number, decimal, date, datetime, boolean — anything else compares as text).
+ */
+@Data
+public class AttributeFilter {
+
+    @NotNull(message = "Filter op is required")
+    private Operator op;
+
+    // Leaf operators: attribute key to test
+    private String key;
+
+    // EQ / PREFIX
+    private String value;
+
+    // IN
+    private List<String> values;
+
+    // RANGE (inclusive; either bound may be omitted)
+    private String min;
+    private String max;
+
+    // AND / OR (one or more children), NOT (exactly one child)
+    @Valid
+    private List<AttributeFilter> filters;
+
+    public enum Operator {
+        AND,
+        OR,
+        NOT,
+        EQ,
+        IN,
+        RANGE,
+        PREFIX,
+        EXISTS
+    }
+}
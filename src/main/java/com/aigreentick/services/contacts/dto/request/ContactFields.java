@@ -0,0 +1,72 @@
+package com.aigreentick.services.contacts.dto.request;
+
+import com.aigreentick.services.contacts.exception.InvalidFieldSelectionException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset parsed from a fields= parameter, e.g. "id,name,phone,tags".
+ *
+ * Fields that are not requested are neither loaded nor mapped and come back as null.
+ * No parameter (or a blank one) selects every field; id is always included.
+ */
+public final class ContactFields {
+
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        PHONE("phone"),
+        WA_ID("waId"),
+        SOURCE("source"),
+        ATTRIBUTES("attributes"),
+        TAGS("tags"),
+        NOTES("notes"),            // recent notes (single contact)
+        COUNTS("counts"),          // note and project counts (list)
+        TIMESTAMPS("timestamps");
+
+        private final String paramName;
+
+        Field(String paramName) {
+            this.paramName = paramName;
+        }
+    }
+
+    public static final ContactFields ALL = new ContactFields(EnumSet.allOf(Field.class));
+
+    private final Set<Field> fields;
+
+    private ContactFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @throws InvalidFieldSelectionException for a name that is not a known field
+     */
+    public static ContactFields parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+
+        EnumSet<Field> selected = EnumSet.of(Field.ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            selected.add(Arrays.stream(Field.values())
+                    .filter(f -> f.paramName.equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldSelectionException(trimmed, validNames())));
+        }
+        return new ContactFields(selected);
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    private static String validNames() {
+        return Arrays.stream(Field.values())
+                .map(f -> f.paramName)
+                .collect(Collectors.joining(", "));
+    }
+}
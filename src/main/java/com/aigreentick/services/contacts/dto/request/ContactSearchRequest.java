@@ -1,5 +1,6 @@
 package com.aigreentick.services.contacts.dto.request;
 
+import jakarta.validation.Valid;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,11 +11,13 @@ public class ContactSearchRequest {
     // Search term (searches in name and phone)
     private String search;
 
-    // Filter by specific phone
+    // Filter by phone — matches numbers ending with these digits (e.g. last 4–6 digits)
     private String phone;
 
     // Filter by tags
-    private List<Long> tagIds;
+    private List<Long> tagIds;          // any of these tags
+    private List<Long> allTagIds;       // every one of these tags
+    private List<Long> excludedTagIds;  // none of these tags
 
     // Filter by source
     private String source; // manual, import, integration, inbound
@@ -28,6 +31,14 @@ public class ContactSearchRequest {
     // Filter by attribute
     private String attributeKey;
     private String attributeValue;
+    private AttributeMatch attributeMatch = AttributeMatch.CONTAINS; // EXACT and PREFIX use idx_attr_text
+
+    // Compound, typed attribute filter (AND / OR / NOT over EQ, IN, RANGE, PREFIX, EXISTS)
+    @Valid
+    private AttributeFilter filter;
+
+    // Sparse fieldset for the list rows, e.g. "id,name,phone,tags" (see ContactFields)
+    private String fields;
 
     // Pagination
     private Integer page = 0;
@@ -36,4 +47,10 @@ public class ContactSearchRequest {
     // Sorting
     private String sortBy = "updatedAt"; // name, phoneNumber, createdAt, updatedAt, lastSeenAt
     private String sortDirection = "DESC"; // ASC or DESC
+
+    public enum AttributeMatch {
+        EXACT,
+        PREFIX,
+        CONTAINS
+    }
 }
\ No newline at end of file
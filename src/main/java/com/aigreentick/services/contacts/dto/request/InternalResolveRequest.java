@@ -12,6 +12,9 @@ public class InternalResolveRequest {
     @NotNull(message = "projectId is required")
     private Long projectId;
 
+    // true → only contacts linked to projectId (project_contacts); default: whole organization
+    private Boolean projectScoped = false;
+
     @NotEmpty(message = "phoneNumbers cannot be empty")
     private List<String> phoneNumbers;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.aigreentick.services.contacts.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SegmentCreateRequest {
+
+    @NotBlank(message = "Segment name is required")
+    @Size(max = 150, message = "Segment name must be at most 150 characters")
+    private String name;
+
+    // Same filters as the contact search; page, size and sort fields are ignored
+    @Valid
+    @NotNull(message = "Segment filter is required")
+    private ContactSearchRequest filter;
+}
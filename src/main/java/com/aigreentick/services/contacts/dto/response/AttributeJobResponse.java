@@ -0,0 +1,26 @@
+package com.aigreentick.services.contacts.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status of an asynchronous internal attribute job
+ */
+@Data
+@Builder
+public class AttributeJobResponse {
+
+    private String jobId;
+    private String status;              // PENDING, RUNNING, COMPLETED, FAILED
+    private List<String> attributeKeys;
+    private Integer totalPhones;        // distinct, normalisable phones submitted
+    private Integer processedPhones;
+    private Integer resultCount;        // contacts found so far
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;    // results are discarded after this
+}
@@ -0,0 +1,23 @@
+package com.aigreentick.services.contacts.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Columnar form of the internal attributes response: contact i is
+ * (contactIds[i], phoneNumbers[i], values[i]), and values[i][j] belongs to keys[j].
+ *
+ * When dictionary is present, non-null values are indexes into it.
+ */
+@Data
+@Builder
+public class ColumnarAttributesResponse {
+
+    private List<String> keys;
+    private List<String> dictionary;
+    private List<Long> contactIds;
+    private List<String> phoneNumbers;
+    private List<Object[]> values;
+}
@@ -0,0 +1,46 @@
+package com.aigreentick.services.contacts.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Facet counts for the contacts matching a search
+ */
+@Data
+@Builder
+public class ContactFacetResponse {
+
+    private Long totalElements;
+
+    private List<FacetCount> sources;
+
+    // Number of matching contacts carrying each tag
+    private List<TagFacet> tags;
+
+    // Top values of the requested attribute (null when no attribute was requested)
+    private AttributeFacet attribute;
+
+    @Data
+    @Builder
+    public static class FacetCount {
+        private String value;
+        private Long count;
+    }
+
+    @Data
+    @Builder
+    public static class TagFacet {
+        private Long tagId;
+        private String name;
+        private String color;
+        private Long count;
+    }
+
+    @Data
+    @Builder
+    public static class AttributeFacet {
+        private String key;
+        private List<FacetCount> values;
+    }
+}
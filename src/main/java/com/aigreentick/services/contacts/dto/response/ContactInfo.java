@@ -1,5 +1,6 @@
 package com.aigreentick.services.contacts.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -15,6 +16,7 @@ public class ContactInfo {
 
     @Data
     @Builder
+    @AllArgsConstructor   // one object per cell on the bulk paths, no builder
     public static class Attribute {
         private String key;
         private String value;
@@ -0,0 +1,19 @@
+package com.aigreentick.services.contacts.dto.response;
+
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class SegmentResponse {
+
+    private Long id;
+    private String name;
+    private ContactSearchRequest filter;
+    private Long memberCount;
+    private LocalDateTime materializedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.aigreentick.services.contacts.entity;
 
 import com.aigreentick.services.contacts.converter.SourceConverter;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,7 +15,10 @@ import java.time.LocalDateTime;
         name = "contacts",
         indexes = {
                 @Index(name = "idx_org_last_seen", columnList = "organization_id, last_seen_at DESC"),
-                @Index(name = "idx_org_display_name", columnList = "organization_id, display_name")
+                @Index(name = "idx_org_display_name", columnList = "organization_id, display_name"),
+                @Index(name = "idx_org_reversed_phone", columnList = "organization_id, reversed_phone"),
+                @Index(name = "idx_org_phone", columnList = "organization_id, wa_phone_e164"),
+                @Index(name = "idx_org_updated_at", columnList = "organization_id, updated_at")
         }
 )
 @Getter
@@ -32,6 +36,12 @@ public class Contact {
     @Column(name = "wa_phone_e164", nullable = false, length = 20)
     private String waPhoneE164;
 
+    // wa_phone_e164 reversed, so "ends with digits" lookups become index prefix scans.
+    // Maintained by setWaPhoneE164 — never set directly.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "reversed_phone", length = 20)
+    private String reversedPhone;
+
     @Column(name = "wa_id", length = 64)
     private String waId;
 
@@ -57,6 +67,13 @@ public class Contact {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    public void setWaPhoneE164(String waPhoneE164) {
+        this.waPhoneE164 = waPhoneE164;
+        this.reversedPhone = waPhoneE164 != null
+                ? new StringBuilder(waPhoneE164).reverse().toString()
+                : null;
+    }
+
     // -------- ENUM (UPDATED: IMPORT instead of import_) --------
     public enum Source {
         MANUAL,      // → "manual" in DB
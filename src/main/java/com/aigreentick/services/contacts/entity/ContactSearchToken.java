@@ -0,0 +1,88 @@
+package com.aigreentick.services.contacts.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * Trigram inverted index over contact display name and phone, used to answer
+ * substring search without a leading-wildcard LIKE scan.
+ *
+ * Tokens are produced by SearchTokenUtil (lower-cased, accents stripped) and stored
+ * with a binary collation so that distinct grams never collide on the primary key.
+ */
+@Entity
+@Table(
+        name = "contact_search_tokens",
+        indexes = {
+                @Index(name = "idx_org_token", columnList = "organization_id, token, contact_id")
+        }
+)
+@IdClass(ContactSearchToken.Key.class)
+@Getter
+@Setter
+public class ContactSearchToken implements Persistable<ContactSearchToken.Key> {
+
+    @Id
+    @Column(name = "contact_id", nullable = false)
+    private Long contactId;
+
+    @Id
+    @Column(name = "token", nullable = false,
+            columnDefinition = "VARCHAR(3) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin")
+    private String token;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    // Rows are only ever inserted fresh (re-indexing deletes first), so skip the
+    // SELECT that save() would otherwise issue for an assigned id.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public static ContactSearchToken of(Long organizationId, Long contactId, String token) {
+        ContactSearchToken t = new ContactSearchToken();
+        t.setOrganizationId(organizationId);
+        t.setContactId(contactId);
+        t.setToken(token);
+        return t;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(contactId, token);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long contactId;
+        private String token;
+
+        public Key(Long contactId, String token) {
+            this.contactId = contactId;
+            this.token = token;
+        }
+    }
+}
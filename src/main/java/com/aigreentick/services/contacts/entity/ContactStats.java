@@ -0,0 +1,76 @@
+package com.aigreentick.services.contacts.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-contact aggregate counters, maintained transactionally by the write paths so the
+ * list view can read note/tag/project/attribute counts with a single batch lookup
+ * instead of one COUNT query per row.
+ */
+@Entity
+@Table(name = "contact_stats")
+@Getter
+@Setter
+public class ContactStats implements Persistable<Long> {
+
+    @Id
+    @Column(name = "contact_id", nullable = false)
+    private Long contactId;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "note_count", nullable = false)
+    private Integer noteCount = 0;
+
+    @Column(name = "tag_count", nullable = false)
+    private Integer tagCount = 0;
+
+    @Column(name = "project_count", nullable = false)
+    private Integer projectCount = 0;
+
+    @Column(name = "attribute_count", nullable = false)
+    private Integer attributeCount = 0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // The id is assigned (contact_id), so tell Spring Data when a row is new;
+    // otherwise save() issues a SELECT before every INSERT.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean isNew = false;
+
+    public static ContactStats newFor(Long contactId, Long organizationId) {
+        ContactStats stats = new ContactStats();
+        stats.setContactId(contactId);
+        stats.setOrganizationId(organizationId);
+        stats.isNew = true;
+        return stats;
+    }
+
+    @Override
+    public Long getId() {
+        return contactId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
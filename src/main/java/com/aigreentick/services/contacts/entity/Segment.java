@@ -0,0 +1,56 @@
+package com.aigreentick.services.contacts.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A saved contact search whose member ids are materialized in contact_segment_members.
+ */
+@Entity
+@Table(
+        name = "contact_segments",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_org_segment_name", columnNames = {"organization_id", "name"})
+        }
+)
+@Getter
+@Setter
+public class Segment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "name", nullable = false, length = 150)
+    private String name;
+
+    // Serialized ContactSearchRequest (paging / sorting fields are ignored)
+    @Column(name = "filter_json", nullable = false, columnDefinition = "json")
+    private String filterJson;
+
+    @Column(name = "member_count", nullable = false)
+    private Long memberCount = 0L;
+
+    @Column(name = "materialized_at")
+    private LocalDateTime materializedAt;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.aigreentick.services.contacts.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One materialized segment membership row. Rows are written in batches through JDBC by
+ * SegmentService; the entity exists for the JPQL reads and deletes.
+ */
+@Entity
+@Table(
+        name = "contact_segment_members",
+        indexes = {
+                @Index(name = "idx_contact", columnList = "contact_id")
+        }
+)
+@IdClass(SegmentMember.Key.class)
+@Getter
+@Setter
+public class SegmentMember {
+
+    @Id
+    @Column(name = "segment_id", nullable = false)
+    private Long segmentId;
+
+    @Id
+    @Column(name = "contact_id", nullable = false)
+    private Long contactId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long segmentId;
+        private Long contactId;
+
+        public Key(Long segmentId, Long contactId) {
+            this.segmentId = segmentId;
+            this.contactId = contactId;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.aigreentick.services.contacts.exception;
+
+public class AttributeJobNotFoundException extends RuntimeException {
+    public AttributeJobNotFoundException(String jobId) {
+        super("Attribute job not found (or expired) with id: " + jobId);
+    }
+}
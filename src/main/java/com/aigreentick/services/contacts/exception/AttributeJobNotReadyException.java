@@ -0,0 +1,7 @@
+package com.aigreentick.services.contacts.exception;
+
+public class AttributeJobNotReadyException extends RuntimeException {
+    public AttributeJobNotReadyException(String jobId, String status) {
+        super("Attribute job " + jobId + " has no results yet (status: " + status + ")");
+    }
+}
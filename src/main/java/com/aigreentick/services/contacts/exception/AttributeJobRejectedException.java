@@ -0,0 +1,7 @@
+package com.aigreentick.services.contacts.exception;
+
+public class AttributeJobRejectedException extends RuntimeException {
+    public AttributeJobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.aigreentick.services.contacts.exception;
+
+public class DuplicateSegmentException extends RuntimeException {
+    public DuplicateSegmentException(String name) {
+        super("Segment already exists with name: " + name);
+    }
+}
@@ -99,6 +99,54 @@ public class GlobalExceptionHandler {
                         .timestamp(LocalDateTime.now()).build());
     }
 
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFieldSelection(InvalidFieldSelectionException ex) {
+        log.warn("Invalid field selection: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
+    @ExceptionHandler(SegmentNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSegmentNotFound(SegmentNotFoundException ex) {
+        log.warn("Segment not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
+    @ExceptionHandler(DuplicateSegmentException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateSegment(DuplicateSegmentException ex) {
+        log.warn("Duplicate segment: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
+    @ExceptionHandler(AttributeJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleAttributeJobNotFound(AttributeJobNotFoundException ex) {
+        log.warn("Attribute job not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
+    @ExceptionHandler(AttributeJobNotReadyException.class)
+    public ResponseEntity<ErrorResponse> handleAttributeJobNotReady(AttributeJobNotReadyException ex) {
+        log.debug("Attribute job not ready: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
+    @ExceptionHandler(AttributeJobRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAttributeJobRejected(AttributeJobRejectedException ex) {
+        log.warn("Attribute job rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                ErrorResponse.builder().success(false).message(ex.getMessage())
+                        .timestamp(LocalDateTime.now()).build());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         log.error("Unexpected error", ex);
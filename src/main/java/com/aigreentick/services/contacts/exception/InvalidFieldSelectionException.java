@@ -0,0 +1,7 @@
+package com.aigreentick.services.contacts.exception;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+    public InvalidFieldSelectionException(String field, String validFields) {
+        super("Unknown field '" + field + "'. Valid fields: " + validFields);
+    }
+}
@@ -0,0 +1,11 @@
+package com.aigreentick.services.contacts.exception;
+
+public class SegmentNotFoundException extends RuntimeException {
+    public SegmentNotFoundException(String message) {
+        super(message);
+    }
+
+    public SegmentNotFoundException(Long id) {
+        super("Segment not found with id: " + id);
+    }
+}
@@ -1,5 +1,9 @@
 package com.aigreentick.services.contacts.mapper;
 
+import com.aigreentick.services.contacts.dto.projection.AttributeListRow;
+import com.aigreentick.services.contacts.dto.projection.ContactListRow;
+import com.aigreentick.services.contacts.dto.projection.TagListRow;
+import com.aigreentick.services.contacts.dto.request.ContactFields;
 import com.aigreentick.services.contacts.dto.response.ContactListItemResponse;
 import com.aigreentick.services.contacts.dto.response.ContactResponse;
 import com.aigreentick.services.contacts.entity.*;
@@ -27,7 +31,51 @@ public class ContactMapper {
             List<ContactNote> notes,
             Map<Long, AttributeDefinition> attributeDefinitions
     ) {
-        List<ContactResponse.AttributeValueResponse> attributeResponses = attributes.stream()
+        return toResponse(contact, attributes, tagAssignments, tags, notes, attributeDefinitions, ContactFields.ALL);
+    }
+
+    /**
+     * Convert Contact entity to ContactResponse, mapping only the requested fields
+     * (the others stay null; their collections are not expected to be loaded).
+     */
+    public ContactResponse toResponse(
+            Contact contact,
+            List<ContactAttributeValue> attributes,
+            List<ContactTagAssignment> tagAssignments,
+            List<ContactTag> tags,
+            List<ContactNote> notes,
+            Map<Long, AttributeDefinition> attributeDefinitions,
+            ContactFields fields
+    ) {
+        ContactResponse.ContactResponseBuilder response = ContactResponse.builder()
+                .id(contact.getId())
+                .projects(new ArrayList<>());
+
+        if (fields.has(ContactFields.Field.NAME)) response.name(contact.getDisplayName());
+        if (fields.has(ContactFields.Field.PHONE)) response.phoneNumber(contact.getWaPhoneE164());
+        if (fields.has(ContactFields.Field.WA_ID)) response.waId(contact.getWaId());
+        // FIX: source is set only once, lowercase (was set twice — uppercase then overwritten by lowercase)
+        if (fields.has(ContactFields.Field.SOURCE)) response.source(contact.getSource().name().toLowerCase());
+        if (fields.has(ContactFields.Field.ATTRIBUTES)) {
+            response.attributes(toAttributeResponses(attributes, attributeDefinitions));
+        }
+        if (fields.has(ContactFields.Field.TAGS)) response.tags(toTagResponses(tagAssignments, tags));
+        if (fields.has(ContactFields.Field.NOTES)) response.recentNotes(toNoteResponses(notes));
+        if (fields.has(ContactFields.Field.TIMESTAMPS)) {
+            response.firstSeenAt(contact.getFirstSeenAt())
+                    .lastSeenAt(contact.getLastSeenAt())
+                    .createdAt(contact.getCreatedAt())
+                    .updatedAt(contact.getUpdatedAt());
+        }
+
+        return response.build();
+    }
+
+    private List<ContactResponse.AttributeValueResponse> toAttributeResponses(
+            List<ContactAttributeValue> attributes,
+            Map<Long, AttributeDefinition> attributeDefinitions
+    ) {
+        return attributes.stream()
                 .map(attr -> {
                     AttributeDefinition definition = attributeDefinitions.get(attr.getAttributeDefinitionId());
                     return ContactResponse.AttributeValueResponse.builder()
@@ -40,11 +88,16 @@ public class ContactMapper {
                             .build();
                 })
                 .collect(Collectors.toList());
+    }
 
+    private List<ContactResponse.TagResponse> toTagResponses(
+            List<ContactTagAssignment> tagAssignments,
+            List<ContactTag> tags
+    ) {
         Map<Long, ContactTag> tagMap = tags.stream()
                 .collect(Collectors.toMap(ContactTag::getId, tag -> tag));
 
-        List<ContactResponse.TagResponse> tagResponses = tagAssignments.stream()
+        return tagAssignments.stream()
                 .map(assignment -> {
                     ContactTag tag = tagMap.get(assignment.getTagId());
                     if (tag == null) return null;
@@ -57,8 +110,10 @@ public class ContactMapper {
                 })
                 .filter(tag -> tag != null)
                 .collect(Collectors.toList());
+    }
 
-        List<ContactResponse.NoteResponse> noteResponses = notes.stream()
+    private List<ContactResponse.NoteResponse> toNoteResponses(List<ContactNote> notes) {
+        return notes.stream()
                 .map(note -> ContactResponse.NoteResponse.builder()
                         .id(note.getId())
                         .text(note.getNoteText())
@@ -67,78 +122,58 @@ public class ContactMapper {
                         .createdAt(note.getCreatedAt())
                         .build())
                 .collect(Collectors.toList());
-
-        return ContactResponse.builder()
-                .id(contact.getId())
-                .name(contact.getDisplayName())
-                .phoneNumber(contact.getWaPhoneE164())
-                .waId(contact.getWaId())
-                // FIX: source is set only once, lowercase (was set twice — uppercase then overwritten by lowercase)
-                .source(contact.getSource().name().toLowerCase())
-                .attributes(attributeResponses)
-                .tags(tagResponses)
-                .recentNotes(noteResponses)
-                .projects(new ArrayList<>())
-                .firstSeenAt(contact.getFirstSeenAt())
-                .lastSeenAt(contact.getLastSeenAt())
-                .createdAt(contact.getCreatedAt())
-                .updatedAt(contact.getUpdatedAt())
-                .build();
     }
 
     /**
-     * Convert Contact entity to lightweight list DTO.
-     * FIX: Removed duplicate source assignment (same bug as toResponse).
+     * Build the lightweight list DTO from list-page projections, mapping only the requested
+     * fields. Counts come from the contact_stats aggregate; a null stats row means all zero.
      */
     public ContactListItemResponse toListItemResponse(
-            Contact contact,
-            List<ContactAttributeValue> attributes,
-            List<ContactTagAssignment> tagAssignments,
-            List<ContactTag> tags,
-            Map<Long, AttributeDefinition> attributeDefinitions,
-            long noteCount
+            ContactListRow contact,
+            List<AttributeListRow> attributes,
+            List<TagListRow> tags,
+            ContactStats stats,
+            ContactFields fields
     ) {
-        List<ContactListItemResponse.SimpleAttribute> simpleAttributes = attributes.stream()
-                .limit(5)
-                .map(attr -> {
-                    AttributeDefinition definition = attributeDefinitions.get(attr.getAttributeDefinitionId());
-                    return ContactListItemResponse.SimpleAttribute.builder()
-                            .key(definition != null ? definition.getAttrKey() : "unknown")
-                            .value(extractAttributeValue(attr))
-                            .build();
-                })
-                .collect(Collectors.toList());
+        ContactListItemResponse.ContactListItemResponseBuilder item = ContactListItemResponse.builder()
+                .id(contact.id());
 
-        Map<Long, ContactTag> tagMap = tags.stream()
-                .collect(Collectors.toMap(ContactTag::getId, tag -> tag));
+        if (fields.has(ContactFields.Field.NAME)) item.name(contact.displayName());
+        if (fields.has(ContactFields.Field.PHONE)) item.phoneNumber(contact.waPhoneE164());
+        if (fields.has(ContactFields.Field.SOURCE)) item.source(contact.source().name().toLowerCase());
+        if (fields.has(ContactFields.Field.ATTRIBUTES)) item.attributes(toSimpleAttributes(attributes));
+        if (fields.has(ContactFields.Field.TAGS)) item.tags(toSimpleTags(tags));
+        if (fields.has(ContactFields.Field.COUNTS)) {
+            item.noteCount(stats != null ? stats.getNoteCount() : 0)
+                    .projectCount(stats != null ? stats.getProjectCount() : 0);
+        }
+        if (fields.has(ContactFields.Field.TIMESTAMPS)) {
+            item.lastSeenAt(contact.lastSeenAt())
+                    .createdAt(contact.createdAt())
+                    .updatedAt(contact.updatedAt());
+        }
 
-        List<ContactListItemResponse.SimpleTag> simpleTags = tagAssignments.stream()
-                .map(assignment -> {
-                    ContactTag tag = tagMap.get(assignment.getTagId());
-                    if (tag == null) return null;
-                    return ContactListItemResponse.SimpleTag.builder()
-                            .id(tag.getId())
-                            .name(tag.getName())
-                            .color(tag.getColor())
-                            .build();
-                })
-                .filter(tag -> tag != null)
+        return item.build();
+    }
+
+    private List<ContactListItemResponse.SimpleAttribute> toSimpleAttributes(List<AttributeListRow> attributes) {
+        return attributes.stream()
+                .limit(5)
+                .map(attr -> ContactListItemResponse.SimpleAttribute.builder()
+                        .key(attr.attrKey())
+                        .value(attr.displayValue())
+                        .build())
                 .collect(Collectors.toList());
+    }
 
-        return ContactListItemResponse.builder()
-                .id(contact.getId())
-                .name(contact.getDisplayName())
-                .phoneNumber(contact.getWaPhoneE164())
-                // FIX: source is set only once, lowercase
-                .source(contact.getSource().name().toLowerCase())
-                .attributes(simpleAttributes)
-                .tags(simpleTags)
-                .noteCount((int) noteCount)
-                .projectCount(0)
-                .lastSeenAt(contact.getLastSeenAt())
-                .createdAt(contact.getCreatedAt())
-                .updatedAt(contact.getUpdatedAt())
-                .build();
+    private List<ContactListItemResponse.SimpleTag> toSimpleTags(List<TagListRow> tags) {
+        return tags.stream()
+                .map(tag -> ContactListItemResponse.SimpleTag.builder()
+                        .id(tag.tagId())
+                        .name(tag.name())
+                        .color(tag.color())
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private String extractAttributeValue(ContactAttributeValue attr) {
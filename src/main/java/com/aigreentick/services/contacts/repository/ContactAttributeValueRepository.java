@@ -1,12 +1,18 @@
 package com.aigreentick.services.contacts.repository;
 
+import com.aigreentick.services.contacts.dto.projection.AttributeListRow;
+import com.aigreentick.services.contacts.dto.projection.AttributeValueRow;
+import com.aigreentick.services.contacts.dto.projection.UntypedValueRow;
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
 import com.aigreentick.services.contacts.entity.ContactAttributeValue;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +29,54 @@ public interface ContactAttributeValueRepository extends JpaRepository<ContactAt
     @Query("SELECT av FROM ContactAttributeValue av WHERE av.contactId IN :contactIds")
     List<ContactAttributeValue> findByContactIdIn(@Param("contactIds") List<Long> contactIds);
 
+    /**
+     * List-page projection: key and value columns only, in contact / insertion order.
+     * value_json is fetched only for rows where it is the value actually displayed.
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.AttributeListRow(" +
+            "av.contactId, ad.attrKey, av.valueText, av.valueNumber, av.valueDecimal, av.valueBool, " +
+            "av.valueDate, av.valueDatetime, " +
+            "CASE WHEN (av.valueText IS NULL OR av.valueText = '') AND av.valueNumber IS NULL " +
+            "AND av.valueDecimal IS NULL AND av.valueBool IS NULL AND av.valueDate IS NULL " +
+            "AND av.valueDatetime IS NULL THEN av.valueJson END) " +
+            "FROM ContactAttributeValue av JOIN AttributeDefinition ad ON ad.id = av.attributeDefinitionId " +
+            "WHERE av.contactId IN :contactIds ORDER BY av.contactId, av.id")
+    List<AttributeListRow> findListRowsByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
+    /**
+     * Requested-keys projection for bulk attribute fetches: only the given definitions'
+     * rows (served by uk_contact_attr), typed value columns only.
+     * value_json is fetched only for rows where it is the value actually returned.
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.AttributeValueRow(" +
+            "av.contactId, av.attributeDefinitionId, av.valueText, av.valueNumber, av.valueDecimal, " +
+            "av.valueBool, av.valueDate, av.valueDatetime, " +
+            "CASE WHEN (av.valueText IS NULL OR av.valueText = '') AND av.valueNumber IS NULL " +
+            "AND av.valueDecimal IS NULL AND av.valueBool IS NULL AND av.valueDate IS NULL " +
+            "AND av.valueDatetime IS NULL THEN av.valueJson END) " +
+            "FROM ContactAttributeValue av " +
+            "WHERE av.contactId IN :contactIds AND av.attributeDefinitionId IN :definitionIds")
+    List<AttributeValueRow> findValueRows(
+            @Param("contactIds") Collection<Long> contactIds,
+            @Param("definitionIds") Collection<Long> definitionIds
+    );
+
+    /**
+     * Keyset page of rows of the given data types that hold only value_text — written
+     * before the typed columns were filled (typed column backfill)
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.UntypedValueRow(" +
+            "av.id, av.valueText, ad.dataType) " +
+            "FROM ContactAttributeValue av JOIN AttributeDefinition ad ON ad.id = av.attributeDefinitionId " +
+            "WHERE av.id > :afterId AND ad.dataType IN :dataTypes AND av.valueText IS NOT NULL " +
+            "AND av.valueNumber IS NULL AND av.valueDecimal IS NULL AND av.valueBool IS NULL " +
+            "AND av.valueDate IS NULL AND av.valueDatetime IS NULL ORDER BY av.id")
+    List<UntypedValueRow> findUntypedAfter(
+            @Param("afterId") long afterId,
+            @Param("dataTypes") Collection<AttributeDefinition.DataType> dataTypes,
+            Pageable pageable
+    );
+
     /**
      * Delete all attributes for a contact (for update operation)
      */
@@ -45,4 +99,11 @@ public interface ContactAttributeValueRepository extends JpaRepository<ContactAt
      * Count attributes for a contact
      */
     long countByContactId(Long contactId);
+
+    /**
+     * Attribute counts for several contacts in one grouped query: rows of [contactId, count]
+     */
+    @Query("SELECT av.contactId, COUNT(av) FROM ContactAttributeValue av " +
+            "WHERE av.contactId IN :contactIds GROUP BY av.contactId")
+    List<Object[]> countGroupedByContactIdIn(@Param("contactIds") List<Long> contactIds);
 }
\ No newline at end of file
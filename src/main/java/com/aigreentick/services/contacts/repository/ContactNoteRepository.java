@@ -22,6 +22,13 @@ public interface ContactNoteRepository extends JpaRepository<ContactNote, Long>
 
     long countByContactId(Long contactId);
 
+    /**
+     * Note counts for several contacts in one grouped query: rows of [contactId, count]
+     */
+    @Query("SELECT n.contactId, COUNT(n) FROM ContactNote n " +
+            "WHERE n.contactId IN :contactIds GROUP BY n.contactId")
+    List<Object[]> countGroupedByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
     /**
      * FIX: Bulk delete via JPQL instead of loading entities into memory then calling deleteAll().
      */
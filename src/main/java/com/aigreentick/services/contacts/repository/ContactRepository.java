@@ -1,18 +1,23 @@
 package com.aigreentick.services.contacts.repository;
 
+import com.aigreentick.services.contacts.dto.projection.ContactPhoneRow;
 import com.aigreentick.services.contacts.entity.Contact;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long>,
-        JpaSpecificationExecutor<Contact> {
+        JpaSpecificationExecutor<Contact>, ContactRepositoryCustom {
 
     /**
      * Find contact by ID and organization (security check)
@@ -29,6 +34,69 @@ public interface ContactRepository extends JpaRepository<Contact, Long>,
      */
     Optional<Contact> findByOrganizationIdAndWaPhoneE164(Long organizationId, String waPhoneE164);
 
+    /**
+     * Bulk phone lookup projecting only (id, phone) — see ContactPhoneResolver
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.ContactPhoneRow(c.id, c.waPhoneE164) " +
+            "FROM Contact c WHERE c.organizationId = :organizationId AND c.waPhoneE164 IN :phones ORDER BY c.id")
+    List<ContactPhoneRow> findPhoneRows(
+            @Param("organizationId") Long organizationId,
+            @Param("phones") Collection<String> phones
+    );
+
+    /**
+     * Read back contacts inserted outside JPA (bulk auto-create): (id, phone) of the
+     * organization's contacts with these phones and ids above afterId
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.ContactPhoneRow(c.id, c.waPhoneE164) " +
+            "FROM Contact c WHERE c.organizationId = :organizationId AND c.waPhoneE164 IN :phones " +
+            "AND c.id > :afterId ORDER BY c.id")
+    List<ContactPhoneRow> findPhoneRowsAfterId(
+            @Param("organizationId") Long organizationId,
+            @Param("phones") Collection<String> phones,
+            @Param("afterId") Long afterId
+    );
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Contact c")
+    long findMaxId();
+
+    /**
+     * Bulk phone lookup restricted to contacts linked to a project (uk_project_contact) —
+     * see ContactPhoneResolver.resolveIdsInProject
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.ContactPhoneRow(c.id, c.waPhoneE164) " +
+            "FROM Contact c JOIN ProjectContact pc ON pc.contactId = c.id " +
+            "WHERE c.organizationId = :organizationId AND pc.projectId = :projectId " +
+            "AND c.waPhoneE164 IN :phones ORDER BY c.id")
+    List<ContactPhoneRow> findPhoneRowsInProject(
+            @Param("organizationId") Long organizationId,
+            @Param("projectId") Long projectId,
+            @Param("phones") Collection<String> phones
+    );
+
+    /**
+     * Keyset page of an organization's (id, phone) pairs, oldest first — snapshot source for
+     * PhoneContactCache and PhoneBloomFilters
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.ContactPhoneRow(c.id, c.waPhoneE164) " +
+            "FROM Contact c WHERE c.organizationId = :organizationId AND c.id > :afterId ORDER BY c.id")
+    List<ContactPhoneRow> findPhoneRowsAfter(
+            @Param("organizationId") Long organizationId,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * Phones of an organization's contacts created or changed since the given time, on
+     * idx_org_updated_at — catch-up source for PhoneBloomFilters
+     */
+    @Query("SELECT c.waPhoneE164 FROM Contact c " +
+            "WHERE c.organizationId = :organizationId AND c.updatedAt >= :since")
+    List<String> findPhonesUpdatedSince(
+            @Param("organizationId") Long organizationId,
+            @Param("since") LocalDateTime since
+    );
+
     /**
      * Find all contacts by organization
      */
@@ -49,13 +117,19 @@ public interface ContactRepository extends JpaRepository<Contact, Long>,
     );
 
     /**
-     * Search contacts by name or phone
+     * Fill reversed_phone for rows written before the column existed, one id range
+     * (fromId, toId] at a time. Returns the number of rows updated.
      */
-    @Query("SELECT c FROM Contact c WHERE c.organizationId = :organizationId " +
-            "AND (LOWER(c.displayName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-            "OR c.waPhoneE164 LIKE CONCAT('%', :search, '%'))")
-    List<Contact> searchByNameOrPhone(
-            @Param("organizationId") Long organizationId,
-            @Param("search") String search
-    );
+    @Modifying
+    @Query(value = "UPDATE contacts SET reversed_phone = REVERSE(wa_phone_e164) " +
+            "WHERE id > :fromId AND id <= :toId AND reversed_phone IS NULL", nativeQuery = true)
+    int backfillReversedPhones(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Contacts with no search tokens yet, in id order (search index backfill)
+     */
+    @Query("SELECT c FROM Contact c WHERE c.id > :afterId " +
+            "AND NOT EXISTS (SELECT t.contactId FROM ContactSearchToken t WHERE t.contactId = c.id) " +
+            "ORDER BY c.id")
+    List<Contact> findUnindexedAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
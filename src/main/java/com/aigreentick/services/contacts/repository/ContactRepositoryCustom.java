@@ -0,0 +1,45 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.dto.projection.ContactListRow;
+import com.aigreentick.services.contacts.entity.Contact;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria queries that Spring Data derived / @Query methods cannot express
+ * (Specification-driven projections). Implemented by ContactRepositoryCustomImpl.
+ */
+public interface ContactRepositoryCustom {
+
+    /**
+     * Ids of contacts matching the specification with id > afterId, ascending, at most limit rows.
+     * Selects only the id column — used to walk large result sets with keyset pagination.
+     */
+    List<Long> findIds(Specification<Contact> spec, long afterId, int limit);
+
+    /**
+     * One page of list-view rows for the specification — only the columns ContactListRow
+     * needs, no managed entities. The count query is skipped when the page itself shows
+     * the total (as Spring Data does for findAll).
+     */
+    Page<ContactListRow> findListRows(Specification<Contact> spec, Pageable pageable);
+
+    /**
+     * Matching contacts grouped by source: rows of [Contact.Source, Long count]
+     */
+    List<Object[]> countGroupedBySource(Specification<Contact> spec);
+
+    /**
+     * Tag assignments of matching contacts grouped by tag: rows of [Long tagId, Long count]
+     */
+    List<Object[]> countGroupedByTag(Specification<Contact> spec);
+
+    /**
+     * Most frequent value_text of one attribute among matching contacts, most frequent first:
+     * rows of [String value, Long count]
+     */
+    List<Object[]> countGroupedByAttributeValue(Specification<Contact> spec, Long attributeDefinitionId, int limit);
+}
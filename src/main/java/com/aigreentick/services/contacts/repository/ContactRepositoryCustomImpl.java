@@ -0,0 +1,137 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.dto.projection.ContactListRow;
+import com.aigreentick.services.contacts.entity.Contact;
+import com.aigreentick.services.contacts.entity.ContactAttributeValue;
+import com.aigreentick.services.contacts.entity.ContactTagAssignment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class ContactRepositoryCustomImpl implements ContactRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Contact> spec, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        Predicate after = cb.greaterThan(root.get("id"), afterId);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+
+        query.select(root.get("id"))
+                .where(predicate != null ? cb.and(predicate, after) : after)
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<ContactListRow> findListRows(Specification<Contact> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ContactListRow> query = cb.createQuery(ContactListRow.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        query.select(cb.construct(ContactListRow.class,
+                        root.get("id"),
+                        root.get("displayName"),
+                        root.get("waPhoneE164"),
+                        root.get("source"),
+                        root.get("lastSeenAt"),
+                        root.get("createdAt"),
+                        root.get("updatedAt")))
+                .where(where(spec, root, query, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<ContactListRow> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Contact> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        query.select(cb.count(root)).where(where(spec, root, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<Object[]> countGroupedBySource(Specification<Contact> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Contact> root = query.from(Contact.class);
+
+        query.multiselect(root.get("source"), cb.count(root))
+                .where(where(spec, root, query, cb))
+                .groupBy(root.get("source"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> countGroupedByTag(Specification<Contact> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Contact> root = query.from(Contact.class);
+        Root<ContactTagAssignment> tag = query.from(ContactTagAssignment.class);
+
+        query.multiselect(tag.get("tagId"), cb.count(tag))
+                .where(cb.and(
+                        cb.equal(tag.get("contactId"), root.get("id")),
+                        where(spec, root, query, cb)))
+                .groupBy(tag.get("tagId"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> countGroupedByAttributeValue(
+            Specification<Contact> spec, Long attributeDefinitionId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Contact> root = query.from(Contact.class);
+        Root<ContactAttributeValue> value = query.from(ContactAttributeValue.class);
+        Expression<Long> count = cb.count(value);
+
+        query.multiselect(value.get("valueText"), count)
+                .where(cb.and(
+                        cb.equal(value.get("contactId"), root.get("id")),
+                        cb.equal(value.get("attributeDefinitionId"), attributeDefinitionId),
+                        cb.isNotNull(value.get("valueText")),
+                        where(spec, root, query, cb)))
+                .groupBy(value.get("valueText"))
+                .orderBy(cb.desc(count));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Predicate where(
+            Specification<Contact> spec, Root<Contact> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        return predicate != null ? predicate : cb.conjunction();
+    }
+}
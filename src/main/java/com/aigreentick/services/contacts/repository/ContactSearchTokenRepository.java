@@ -0,0 +1,20 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.entity.ContactSearchToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContactSearchTokenRepository
+        extends JpaRepository<ContactSearchToken, ContactSearchToken.Key> {
+
+    /**
+     * Drop every token of a contact (before re-indexing or on delete)
+     */
+    @Modifying
+    @Query("DELETE FROM ContactSearchToken t WHERE t.contactId = :contactId")
+    void deleteByContactId(@Param("contactId") Long contactId);
+}
@@ -0,0 +1,68 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.entity.ContactStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContactStatsRepository extends JpaRepository<ContactStats, Long> {
+
+    /**
+     * Batch load counters for a page of contacts (list view)
+     */
+    @Query("SELECT s FROM ContactStats s WHERE s.contactId IN :contactIds")
+    List<ContactStats> findByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
+    /**
+     * Overwrite attribute + tag counts after a replace-style update.
+     * Returns the number of rows touched (0 when the contact has no stats row yet).
+     */
+    @Modifying
+    @Query("UPDATE ContactStats s SET s.attributeCount = :attributeCount, s.tagCount = :tagCount, " +
+            "s.updatedAt = CURRENT_TIMESTAMP WHERE s.contactId = :contactId")
+    int updateAttributeAndTagCounts(
+            @Param("contactId") Long contactId,
+            @Param("attributeCount") int attributeCount,
+            @Param("tagCount") int tagCount
+    );
+
+    /**
+     * Atomically add to the attribute counter
+     */
+    @Modifying
+    @Query("UPDATE ContactStats s SET s.attributeCount = s.attributeCount + :delta, " +
+            "s.updatedAt = CURRENT_TIMESTAMP WHERE s.contactId = :contactId")
+    int incrementAttributeCount(@Param("contactId") Long contactId, @Param("delta") int delta);
+
+    /**
+     * Atomically add to the project counter
+     */
+    @Modifying
+    @Query("UPDATE ContactStats s SET s.projectCount = s.projectCount + :delta, " +
+            "s.updatedAt = CURRENT_TIMESTAMP WHERE s.contactId = :contactId")
+    int incrementProjectCount(@Param("contactId") Long contactId, @Param("delta") int delta);
+
+    /**
+     * Add to the project counter of several contacts at once (rows that exist)
+     */
+    @Modifying
+    @Query("UPDATE ContactStats s SET s.projectCount = s.projectCount + :delta, " +
+            "s.updatedAt = CURRENT_TIMESTAMP WHERE s.contactId IN :contactIds")
+    int incrementProjectCounts(@Param("contactIds") Collection<Long> contactIds, @Param("delta") int delta);
+
+    /**
+     * Which of the contacts have a stats row
+     */
+    @Query("SELECT s.contactId FROM ContactStats s WHERE s.contactId IN :contactIds")
+    List<Long> findContactIdsIn(@Param("contactIds") Collection<Long> contactIds);
+
+    @Modifying
+    @Query("DELETE FROM ContactStats s WHERE s.contactId = :contactId")
+    void deleteByContactId(@Param("contactId") Long contactId);
+}
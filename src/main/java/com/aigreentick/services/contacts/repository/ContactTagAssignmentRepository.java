@@ -1,5 +1,6 @@
 package com.aigreentick.services.contacts.repository;
 
+import com.aigreentick.services.contacts.dto.projection.TagListRow;
 import com.aigreentick.services.contacts.entity.ContactTagAssignment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -13,6 +14,12 @@ import java.util.Optional;
 @Repository
 public interface ContactTagAssignmentRepository extends JpaRepository<ContactTagAssignment, Long> {
 
+    /**
+     * Every (tagId, contactId) pair of an organization — source for TagBitmapIndex
+     */
+    @Query("SELECT ta.tagId, ta.contactId FROM ContactTagAssignment ta WHERE ta.organizationId = :organizationId")
+    List<Object[]> findTagContactPairsByOrganizationId(@Param("organizationId") Long organizationId);
+
     /**
      * Find all tag assignments for a contact
      */
@@ -24,6 +31,15 @@ public interface ContactTagAssignmentRepository extends JpaRepository<ContactTag
     @Query("SELECT ta FROM ContactTagAssignment ta WHERE ta.contactId IN :contactIds")
     List<ContactTagAssignment> findByContactIdIn(@Param("contactIds") List<Long> contactIds);
 
+    /**
+     * List-page projection: tag id, name and color per contact, in one join
+     */
+    @Query("SELECT new com.aigreentick.services.contacts.dto.projection.TagListRow(" +
+            "ta.contactId, t.id, t.name, t.color) " +
+            "FROM ContactTagAssignment ta JOIN ContactTag t ON t.id = ta.tagId " +
+            "WHERE ta.contactId IN :contactIds ORDER BY ta.contactId, ta.id")
+    List<TagListRow> findListRowsByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
     /**
      * Find all contacts with a specific tag
      */
@@ -44,6 +60,13 @@ public interface ContactTagAssignmentRepository extends JpaRepository<ContactTag
      */
     boolean existsByContactIdAndTagId(Long contactId, Long tagId);
 
+    /**
+     * Tag counts for several contacts in one grouped query: rows of [contactId, count]
+     */
+    @Query("SELECT ta.contactId, COUNT(ta) FROM ContactTagAssignment ta " +
+            "WHERE ta.contactId IN :contactIds GROUP BY ta.contactId")
+    List<Object[]> countGroupedByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
     /**
      * Delete all assignments for a contact
      */
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,23 @@ public interface ProjectContactRepository extends JpaRepository<ProjectContact,
 
     List<ProjectContact> findByContactId(Long contactId);
 
+    /**
+     * Which of the contacts are already linked to the project (uk_project_contact)
+     */
+    @Query("SELECT pc.contactId FROM ProjectContact pc " +
+            "WHERE pc.projectId = :projectId AND pc.contactId IN :contactIds")
+    List<Long> findLinkedContactIds(
+            @Param("projectId") Long projectId,
+            @Param("contactIds") Collection<Long> contactIds
+    );
+
+    /**
+     * Project counts for several contacts in one grouped query: rows of [contactId, count]
+     */
+    @Query("SELECT pc.contactId, COUNT(pc) FROM ProjectContact pc " +
+            "WHERE pc.contactId IN :contactIds GROUP BY pc.contactId")
+    List<Object[]> countGroupedByContactIdIn(@Param("contactIds") List<Long> contactIds);
+
     /**
      * FIX: Added to support cascade delete when a contact is removed.
      * Without this, project_contacts rows referencing a deleted contact were left as orphans.
@@ -0,0 +1,58 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.entity.SegmentMember;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SegmentMemberRepository extends JpaRepository<SegmentMember, SegmentMember.Key> {
+
+    /**
+     * Member ids after a cursor, in id order (primary key range scan, no filter evaluation)
+     */
+    @Query("SELECT m.contactId FROM SegmentMember m " +
+            "WHERE m.segmentId = :segmentId AND m.contactId > :afterContactId ORDER BY m.contactId")
+    List<Long> findContactIdsAfter(
+            @Param("segmentId") Long segmentId,
+            @Param("afterContactId") long afterContactId,
+            Pageable pageable
+    );
+
+    /**
+     * Which of the given contacts are currently members
+     */
+    @Query("SELECT m.contactId FROM SegmentMember m " +
+            "WHERE m.segmentId = :segmentId AND m.contactId IN :contactIds")
+    List<Long> findMemberIdsIn(
+            @Param("segmentId") Long segmentId,
+            @Param("contactIds") Collection<Long> contactIds
+    );
+
+    /**
+     * Segments a contact currently belongs to
+     */
+    @Query("SELECT m.segmentId FROM SegmentMember m WHERE m.contactId = :contactId")
+    List<Long> findSegmentIdsByContactId(@Param("contactId") Long contactId);
+
+    @Modifying
+    @Query("DELETE FROM SegmentMember m WHERE m.segmentId = :segmentId AND m.contactId IN :contactIds")
+    int deleteBySegmentIdAndContactIdIn(
+            @Param("segmentId") Long segmentId,
+            @Param("contactIds") Collection<Long> contactIds
+    );
+
+    @Modifying
+    @Query("DELETE FROM SegmentMember m WHERE m.segmentId = :segmentId")
+    void deleteBySegmentId(@Param("segmentId") Long segmentId);
+
+    @Modifying
+    @Query("DELETE FROM SegmentMember m WHERE m.contactId = :contactId")
+    void deleteByContactId(@Param("contactId") Long contactId);
+}
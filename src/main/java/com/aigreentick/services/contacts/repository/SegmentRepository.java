@@ -0,0 +1,28 @@
+package com.aigreentick.services.contacts.repository;
+
+import com.aigreentick.services.contacts.entity.Segment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SegmentRepository extends JpaRepository<Segment, Long> {
+
+    List<Segment> findByOrganizationIdOrderByNameAsc(Long organizationId);
+
+    Optional<Segment> findByIdAndOrganizationId(Long id, Long organizationId);
+
+    boolean existsByOrganizationIdAndName(Long organizationId, String name);
+
+    /**
+     * Atomically adjust the cached member count
+     */
+    @Modifying
+    @Query("UPDATE Segment s SET s.memberCount = s.memberCount + :delta WHERE s.id = :segmentId")
+    void incrementMemberCount(@Param("segmentId") Long segmentId, @Param("delta") long delta);
+}
@@ -0,0 +1,72 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
+import com.aigreentick.services.contacts.repository.AttributeDefinitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves (organizationId, attrKey) → AttributeDefinition for search filters, with an
+ * in-process cache so repeated searches do not re-read attribute_definitions.
+ *
+ * Definitions are only ever created (never re-keyed or deleted), so a cached hit stays
+ * valid; misses are not cached because the key may be auto-created later. Cached entities
+ * are detached snapshots — callers must treat them as read-only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttributeDefinitionResolver {
+
+    private static final int MAX_CACHED_DEFINITIONS = 10_000;
+
+    private final AttributeDefinitionRepository attributeDefinitionRepository;
+
+    private final Map<CacheKey, AttributeDefinition> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve one key within the organization.
+     */
+    public Optional<AttributeDefinition> resolve(Long organizationId, String attrKey) {
+        return Optional.ofNullable(resolveAll(organizationId, List.of(attrKey)).get(attrKey));
+    }
+
+    /**
+     * Resolve several keys within the organization: cache hits first, then a single
+     * batch query for the rest. Keys with no definition are absent from the result.
+     */
+    public Map<String, AttributeDefinition> resolveAll(Long organizationId, Collection<String> attrKeys) {
+        Map<String, AttributeDefinition> result = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        for (String key : attrKeys) {
+            AttributeDefinition cached = cache.get(new CacheKey(organizationId, key));
+            if (cached != null) {
+                result.put(key, cached);
+            } else {
+                misses.add(key);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            if (cache.size() > MAX_CACHED_DEFINITIONS) {
+                log.debug("Attribute definition cache over {} entries, clearing", MAX_CACHED_DEFINITIONS);
+                cache.clear();
+            }
+            for (AttributeDefinition def :
+                    attributeDefinitionRepository.findByOrganizationIdAndAttrKeyIn(organizationId, misses)) {
+                cache.put(new CacheKey(organizationId, def.getAttrKey()), def);
+                result.put(def.getAttrKey(), def);
+            }
+        }
+
+        return result;
+    }
+
+    private record CacheKey(Long organizationId, String attrKey) {
+    }
+}
@@ -0,0 +1,293 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.response.AttributeJobResponse;
+import com.aigreentick.services.contacts.dto.response.ColumnarAttributesResponse;
+import com.aigreentick.services.contacts.dto.response.ContactInfo;
+import com.aigreentick.services.contacts.dto.response.PageResponse;
+import com.aigreentick.services.contacts.exception.AttributeJobNotFoundException;
+import com.aigreentick.services.contacts.exception.AttributeJobNotReadyException;
+import com.aigreentick.services.contacts.exception.AttributeJobRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous attribute lookups for campaigns too large for the synchronous
+ * /internal/contacts/attributes endpoint.
+ *
+ * A job normalises and de-duplicates its phones, splits them into chunks of
+ * {@link #CHUNK_PHONES} and resolves up to {@link #CHUNK_PARALLELISM} chunks at a time
+ * through InternalContactService.loadJobChunk (same contract: unknown phones omitted,
+ * missing value null). Results are kept per chunk in the compact columnar form and turned into
+ * ContactInfo only when a page is read. At most {@link #RUNNING_JOBS} jobs run at once;
+ * later ones wait as PENDING.
+ *
+ * The registry is in memory: jobs and results live in this instance only, are lost on
+ * restart, and expire {@link #RESULT_TTL_MINUTES} minutes after completion. Callers poll
+ * the same instance (sticky routing) and resubmit if the job is gone.
+ */
+@Slf4j
+@Service
+public class AttributeJobService {
+
+    private static final int CHUNK_PHONES = 5_000;
+    private static final int CHUNK_PARALLELISM = 4;
+    private static final int RUNNING_JOBS = 2;
+    private static final int MAX_RETAINED_JOBS = 50;
+    private static final int MAX_JOB_PHONES = 2_000_000;
+    private static final long RESULT_TTL_MINUTES = 60;
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    private final InternalContactService internalContactService;
+    private final ExecutorService queryExecutor;
+
+    private final Map<String, AttributeJob> jobs = new ConcurrentHashMap<>();
+    private final Semaphore runningJobs = new Semaphore(RUNNING_JOBS, true);
+
+    public AttributeJobService(InternalContactService internalContactService, ExecutorService queryExecutor) {
+        this.internalContactService = internalContactService;
+        this.queryExecutor = queryExecutor;
+    }
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    // ── Submit / status ───────────────────────────────────────────────────────
+
+    /**
+     * projectId restricts the lookup to that project's contacts; null searches the whole
+     * organization.
+     */
+    public AttributeJobResponse submit(
+            Long organizationId,
+            Long projectId,
+            List<String> rawPhones,
+            List<String> attributeKeys
+    ) {
+        if (rawPhones.size() > MAX_JOB_PHONES) {
+            throw new AttributeJobRejectedException(
+                    "Job exceeds " + MAX_JOB_PHONES + " phone numbers (" + rawPhones.size() + ")");
+        }
+        List<String> e164Phones = internalContactService.normalisePhones(rawPhones);
+        AttributeJob job = new AttributeJob(UUID.randomUUID().toString(), organizationId, projectId,
+                List.copyOf(attributeKeys), e164Phones.size());
+        // Check and insert under one lock, so concurrent submits cannot both take the last slot
+        synchronized (jobs) {
+            if (jobs.size() >= MAX_RETAINED_JOBS) {
+                throw new AttributeJobRejectedException(
+                        "Too many attribute jobs held (" + MAX_RETAINED_JOBS + "), retry later");
+            }
+            jobs.put(job.id, job);
+        }
+
+        queryExecutor.execute(() -> run(job, e164Phones));
+        log.info("Attribute job {} submitted — org: {}, project scope: {}, phones: {}, keys: {}",
+                job.id, organizationId, projectId, e164Phones.size(), attributeKeys.size());
+        return toResponse(job);
+    }
+
+    public AttributeJobResponse getStatus(Long organizationId, String jobId) {
+        return toResponse(find(organizationId, jobId));
+    }
+
+    // ── Results ───────────────────────────────────────────────────────────────
+
+    /**
+     * One page of a completed job's contacts, in submission order.
+     */
+    public PageResponse<ContactInfo> getResults(Long organizationId, String jobId, int page, int size) {
+        AttributeJob job = completed(organizationId, jobId);
+        int pageIndex = Math.max(page, 0);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int total = job.resultCount.get();
+        int from = (int) Math.min((long) pageIndex * pageSize, total);
+        int to = Math.min(from + pageSize, total);
+
+        List<ContactInfo> content = new ArrayList<>(to - from);
+        int chunkStart = 0;
+        for (ColumnarAttributesResponse chunk : job.chunks) {
+            int chunkEnd = chunkStart + chunk.getContactIds().size();
+            for (int i = Math.max(from, chunkStart); i < Math.min(to, chunkEnd); i++) {
+                content.add(toContactInfo(chunk, i - chunkStart, job.attributeKeys));
+            }
+            if (chunkEnd >= to) break;
+            chunkStart = chunkEnd;
+        }
+
+        int totalPages = (total + pageSize - 1) / pageSize;
+        return PageResponse.<ContactInfo>builder()
+                .content(content)
+                .page(pageIndex)
+                .size(pageSize)
+                .totalElements((long) total)
+                .totalPages(totalPages)
+                .hasNext(pageIndex + 1 < totalPages)
+                .hasPrevious(pageIndex > 0)
+                .isFirst(pageIndex == 0)
+                .isLast(pageIndex + 1 >= totalPages)
+                .build();
+    }
+
+    /**
+     * Throws unless the job exists for the organization and has COMPLETED.
+     */
+    public void requireCompleted(Long organizationId, String jobId) {
+        completed(organizationId, jobId);
+    }
+
+    /**
+     * Every contact of a completed job, handed to sink one result chunk at a time.
+     */
+    public void streamResults(Long organizationId, String jobId, Consumer<List<ContactInfo>> sink) {
+        AttributeJob job = completed(organizationId, jobId);
+        for (ColumnarAttributesResponse chunk : job.chunks) {
+            List<ContactInfo> contacts = new ArrayList<>(chunk.getContactIds().size());
+            for (int i = 0; i < chunk.getContactIds().size(); i++) {
+                contacts.add(toContactInfo(chunk, i, job.attributeKeys));
+            }
+            sink.accept(contacts);
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> job.expiresAt != null && job.expiresAt.isBefore(now));
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private void run(AttributeJob job, List<String> e164Phones) {
+        try {
+            runningJobs.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, Status.FAILED, "Interrupted before start");
+            return;
+        }
+
+        try {
+            job.status = Status.RUNNING;
+            int chunkCount = (e164Phones.size() + CHUNK_PHONES - 1) / CHUNK_PHONES;
+            ColumnarAttributesResponse[] results = new ColumnarAttributesResponse[chunkCount];
+            Semaphore parallelism = new Semaphore(CHUNK_PARALLELISM);
+            List<Future<?>> futures = new ArrayList<>(chunkCount);
+
+            for (int c = 0; c < chunkCount; c++) {
+                int index = c;
+                List<String> chunk = e164Phones.subList(index * CHUNK_PHONES,
+                        Math.min((index + 1) * CHUNK_PHONES, e164Phones.size()));
+                parallelism.acquire();
+                futures.add(queryExecutor.submit(() -> {
+                    try {
+                        results[index] = internalContactService.loadJobChunk(
+                                job.organizationId, job.projectId, chunk, job.attributeKeys);
+                        job.processedPhones.addAndGet(chunk.size());
+                        job.resultCount.addAndGet(results[index].getContactIds().size());
+                    } finally {
+                        parallelism.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            job.chunks = List.of(results);
+            finish(job, Status.COMPLETED, null);
+            log.info("Attribute job {} completed — {}/{} contacts found",
+                    job.id, job.resultCount.get(), job.totalPhones);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, Status.FAILED, "Interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Attribute job {} failed", job.id, cause);
+            finish(job, Status.FAILED, cause.getMessage());
+        } finally {
+            runningJobs.release();
+        }
+    }
+
+    private void finish(AttributeJob job, Status status, String error) {
+        job.error = error;
+        job.completedAt = LocalDateTime.now();
+        job.expiresAt = job.completedAt.plusMinutes(RESULT_TTL_MINUTES);
+        job.status = status;   // last: readers seeing COMPLETED also see chunks
+    }
+
+    private AttributeJob find(Long organizationId, String jobId) {
+        AttributeJob job = jobs.get(jobId);
+        // Another organization's job id is reported exactly like an unknown one
+        if (job == null || !job.organizationId.equals(organizationId)) {
+            throw new AttributeJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    private AttributeJob completed(Long organizationId, String jobId) {
+        AttributeJob job = find(organizationId, jobId);
+        if (job.status != Status.COMPLETED) {
+            throw new AttributeJobNotReadyException(jobId, job.status.name());
+        }
+        return job;
+    }
+
+    private static ContactInfo toContactInfo(ColumnarAttributesResponse chunk, int row, List<String> keys) {
+        Object[] values = chunk.getValues().get(row);
+        List<ContactInfo.Attribute> attributes = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            attributes.add(new ContactInfo.Attribute(keys.get(i), (String) values[i]));
+        }
+        return ContactInfo.builder()
+                .contactId(chunk.getContactIds().get(row))
+                .phoneNumber(chunk.getPhoneNumbers().get(row))
+                .attributes(attributes)
+                .build();
+    }
+
+    private AttributeJobResponse toResponse(AttributeJob job) {
+        return AttributeJobResponse.builder()
+                .jobId(job.id)
+                .status(job.status.name())
+                .attributeKeys(job.attributeKeys)
+                .totalPhones(job.totalPhones)
+                .processedPhones(job.processedPhones.get())
+                .resultCount(job.resultCount.get())
+                .error(job.error)
+                .createdAt(job.createdAt)
+                .completedAt(job.completedAt)
+                .expiresAt(job.expiresAt)
+                .build();
+    }
+
+    private static class AttributeJob {
+        final String id;
+        final Long organizationId;
+        final Long projectId;   // null → whole organization
+        final List<String> attributeKeys;
+        final int totalPhones;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicInteger processedPhones = new AtomicInteger();
+        final AtomicInteger resultCount = new AtomicInteger();
+        volatile Status status = Status.PENDING;
+        volatile List<ColumnarAttributesResponse> chunks = List.of();
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        volatile LocalDateTime expiresAt;
+
+        AttributeJob(String id, Long organizationId, Long projectId, List<String> attributeKeys, int totalPhones) {
+            this.id = id;
+            this.organizationId = organizationId;
+            this.projectId = projectId;
+            this.attributeKeys = attributeKeys;
+            this.totalPhones = totalPhones;
+        }
+    }
+}
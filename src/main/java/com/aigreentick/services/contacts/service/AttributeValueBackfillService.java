@@ -0,0 +1,118 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.projection.UntypedValueRow;
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
+import com.aigreentick.services.contacts.repository.ContactAttributeValueRepository;
+import com.aigreentick.services.contacts.util.AttributeValueUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-off backfill of the typed value_* columns for attribute rows written before the
+ * write paths filled them (AttributeValueUtil.assign), so typed filters and their indexes
+ * also match legacy values. Each row gets exactly what assign would have stored; values
+ * that do not parse for their type stay text-only, as they would on write.
+ *
+ * Runs like the search index backfill (ContactSearchIndexService): in the background,
+ * under a {@link ClusterLock}, retried every minute until this instance has seen it
+ * complete. Only the typed column is written, so updated_at keeps its meaning.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttributeValueBackfillService {
+
+    private static final int BACKFILL_BATCH_SIZE = 2000;
+    private static final String BACKFILL_LOCK = "contacts.typed-attribute-backfill";
+
+    private static final Map<AttributeDefinition.DataType, String> UPDATE_SQL = Map.of(
+            AttributeDefinition.DataType.number, updateSql("value_number"),
+            AttributeDefinition.DataType.decimal, updateSql("value_decimal"),
+            AttributeDefinition.DataType.boolean_, updateSql("value_bool"),
+            AttributeDefinition.DataType.date, updateSql("value_date"),
+            AttributeDefinition.DataType.datetime, updateSql("value_datetime")
+    );
+
+    private final ContactAttributeValueRepository attributeValueRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterLock clusterLock;
+    private final ExecutorService queryExecutor;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile boolean backfillComplete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleBackfill();
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void scheduleBackfill() {
+        if (backfillComplete) return;
+        if (!backfillRunning.compareAndSet(false, true)) return;
+        queryExecutor.execute(() -> {
+            try {
+                boolean ran = clusterLock.runExclusively(BACKFILL_LOCK, () -> backfillComplete = backfill());
+                if (!ran) log.debug("Typed attribute backfill is running on another instance");
+            } catch (RuntimeException e) {
+                log.warn("Typed attribute backfill failed, will retry: {}", e.getMessage());
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    /**
+     * Walk text-only rows of typed definitions in id order, a page at a time, and write the
+     * parsed value into the row's typed column. Each page is one JDBC batch per data type.
+     */
+    private boolean backfill() {
+        long afterId = 0L;
+        int updated = 0;
+
+        while (true) {
+            List<UntypedValueRow> page = attributeValueRepository.findUntypedAfter(
+                    afterId, UPDATE_SQL.keySet(), PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            if (page.isEmpty()) break;
+
+            Map<AttributeDefinition.DataType, List<Object[]>> updates = new EnumMap<>(AttributeDefinition.DataType.class);
+            for (UntypedValueRow row : page) {
+                Object typed = AttributeValueUtil.typedValue(row.dataType(), row.valueText());
+                if (typed != null) {
+                    updates.computeIfAbsent(row.dataType(), t -> new ArrayList<>())
+                            .add(new Object[]{typed, row.id(), row.valueText()});
+                }
+            }
+            for (Map.Entry<AttributeDefinition.DataType, List<Object[]>> entry : updates.entrySet()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL.get(entry.getKey()), entry.getValue());
+                updated += entry.getValue().size();
+            }
+
+            afterId = page.get(page.size() - 1).id();
+        }
+
+        if (updated > 0) {
+            log.info("Typed attribute backfill complete — updated {} values", updated);
+        }
+        return true;
+    }
+
+    // Only while the row still holds the text that was parsed: a concurrent write through assign() wins
+    private static String updateSql(String column) {
+        return "UPDATE contact_attribute_values SET " + column + " = ? " +
+                "WHERE id = ? AND " + column + " IS NULL AND value_text = ?";
+    }
+}
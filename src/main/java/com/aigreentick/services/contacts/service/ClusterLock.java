@@ -0,0 +1,67 @@
+package com.aigreentick.services.contacts.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Cluster-wide mutual exclusion on MySQL named locks (GET_LOCK / RELEASE_LOCK), for
+ * maintenance work — backfills — that must run on one instance at a time.
+ *
+ * The lock belongs to the session that took it, so one connection is held for the whole
+ * task; the task itself runs its own transactions on other connections. A crashed holder
+ * releases the lock with its connection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Run task while holding the named lock.
+     *
+     * @return false, without running the task, when another session holds the lock
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!acquire(connection, name)) return false;
+            try {
+                task.run();
+                return true;
+            } finally {
+                release(connection, name);
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private static boolean acquire(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection, String name) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, name);
+            statement.execute();
+        } catch (SQLException e) {
+            // The lock goes with the session if the connection is closed instead
+            log.warn("Could not release lock {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.aigreentick.services.contacts.service;
 
+import com.aigreentick.services.contacts.dto.projection.AttributeValueRow;
+import com.aigreentick.services.contacts.dto.projection.ContactPhoneRow;
 import com.aigreentick.services.contacts.dto.response.ContactInfo;
 import com.aigreentick.services.contacts.entity.*;
 import com.aigreentick.services.contacts.repository.*;
+import com.aigreentick.services.contacts.util.AttributeValueMatrix;
 import com.aigreentick.services.contacts.util.PhoneNumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,10 +35,28 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ContactBulkAttributeService {
 
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_CONTACT_SQL =
+            "INSERT INTO contacts (organization_id, wa_phone_e164, reversed_phone, wa_id, display_name, source, " +
+                    "first_seen_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PROJECT_CONTACT_SQL =
+            "INSERT INTO project_contacts (project_id, contact_id, last_message_at, unread_count, " +
+                    "created_at, updated_at) VALUES (?, ?, ?, 0, ?, ?)";
+
     private final ContactRepository contactRepository;
     private final ContactAttributeValueRepository attributeValueRepository;
     private final AttributeDefinitionRepository attributeDefinitionRepository;
     private final ProjectContactRepository projectContactRepository;
+    private final ContactStatsService contactStatsService;
+    private final ContactSearchIndexService contactSearchIndexService;
+    private final SegmentService segmentService;
+    private final ContactSearchCache contactSearchCache;
+    private final ContactPhoneResolver contactPhoneResolver;
+    private final PhoneContactCache phoneContactCache;
+    private final PhoneBloomFilters phoneBloomFilters;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Main entry point.
@@ -73,24 +96,25 @@ public class ContactBulkAttributeService {
         List<String> e164Phones = new ArrayList<>(normalizedToOriginal.keySet());
 
         // ── Step 2: Batch-load existing contacts for this org ─────────────────
-        Map<String, Contact> phoneToContact = new HashMap<>();
-        for (String e164 : e164Phones) {
-            contactRepository
-                    .findByOrganizationIdAndWaPhoneE164(organizationId, e164)
-                    .ifPresent(c -> phoneToContact.put(e164, c));
-        }
+        // Chunked IN queries returning only (id, phone) — not one query per phone
+        Map<String, Long> phoneToContactId =
+                new HashMap<>(contactPhoneResolver.resolveIds(organizationId, e164Phones));
 
         // ── Step 3: Auto-create missing contacts + link to project ────────────
-        for (String e164 : e164Phones) {
-            if (!phoneToContact.containsKey(e164)) {
-                Contact newContact = createContact(e164, organizationId);
-                phoneToContact.put(e164, newContact);
-                log.debug("Auto-created contact {} for phone {}", newContact.getId(), e164);
-            }
-
-            // Upsert project_contacts (link contact to project if not already linked)
-            Contact contact = phoneToContact.get(e164);
-            linkContactToProject(contact.getId(), projectId);
+        // One multi-row insert for all missing phones, one read-back of their ids
+        List<String> missingPhones = e164Phones.stream()
+                .filter(e164 -> !phoneToContactId.containsKey(e164))
+                .toList();
+        List<Long> createdContactIds = createContacts(missingPhones, organizationId, phoneToContactId);
+
+        // Upsert project_contacts: chunked lookup of existing links, one batched insert
+        boolean linkedAny = linkContactsToProject(
+                e164Phones.stream().map(phoneToContactId::get).distinct().toList(),
+                new HashSet<>(createdContactIds), projectId, organizationId);
+
+        segmentService.refreshMembership(organizationId, createdContactIds);
+        if (!createdContactIds.isEmpty() || linkedAny) {
+            contactSearchCache.invalidate(organizationId);
         }
 
         // ── Step 4: Resolve attribute definitions ─────────────────────────────
@@ -100,55 +124,47 @@ public class ContactBulkAttributeService {
 
         // ── Step 5: Batch-load all attribute values for these contacts ─────────
         List<Long> contactIds = e164Phones.stream()
-                .map(p -> phoneToContact.get(p).getId())
+                .map(phoneToContactId::get)
                 .collect(Collectors.toList());
 
-        List<ContactAttributeValue> allValues =
-                attributeValueRepository.findByContactIdIn(contactIds);
+        // Column → definition id; a key whose definition could not be found or created
+        // never matches a value
+        long[] columnIds = new long[attributeKeys.size()];
+        Set<Long> definitionIds = new HashSet<>();
+        for (int i = 0; i < columnIds.length; i++) {
+            AttributeDefinition def = keyToDefinition.get(attributeKeys.get(i));
+            columnIds[i] = def != null ? def.getId() : AttributeValueMatrix.NO_COLUMN;
+            if (def != null) definitionIds.add(def.getId());
+        }
 
-        // Index: contactId → (attributeDefinitionId → value)
-        Map<Long, Map<Long, ContactAttributeValue>> valueIndex = new HashMap<>();
-        for (ContactAttributeValue v : allValues) {
-            valueIndex
-                    .computeIfAbsent(v.getContactId(), k -> new HashMap<>())
-                    .put(v.getAttributeDefinitionId(), v);
+        // Only the requested keys' rows, typed value columns only
+        List<AttributeValueRow> allValues = definitionIds.isEmpty()
+                ? List.of()
+                : attributeValueRepository.findValueRows(contactIds, definitionIds);
+
+        // Index: contact (row, in e164Phones order) × requested key (column) → value
+        long[] rowIds = contactIds.stream().mapToLong(Long::longValue).toArray();
+        AttributeValueMatrix values = new AttributeValueMatrix(rowIds, columnIds);
+        for (AttributeValueRow v : allValues) {
+            values.put(v.contactId(), v.attributeDefinitionId(), v.value());
         }
 
         // ── Step 6: Build response ────────────────────────────────────────────
-        List<ContactInfo> result = new ArrayList<>();
+        List<ContactInfo> result = new ArrayList<>(e164Phones.size());
 
-        for (String e164 : e164Phones) {
-            Contact contact = phoneToContact.get(e164);
-            Map<Long, ContactAttributeValue> contactValues =
-                    valueIndex.getOrDefault(contact.getId(), Collections.emptyMap());
-
-            List<ContactInfo.Attribute> attributes = new ArrayList<>();
-
-            for (String key : attributeKeys) {
-                AttributeDefinition def = keyToDefinition.get(key);
-
-                String value;
-                if (def == null) {
-                    // Definition could not be found or created — return key as value
-                    value = key;
-                } else {
-                    ContactAttributeValue attrValue = contactValues.get(def.getId());
-                    if (attrValue == null) {
-                        // No value stored for this contact → return key name as value
-                        value = key;
-                    } else {
-                        value = extractValue(attrValue, key);
-                    }
-                }
+        for (int row = 0; row < e164Phones.size(); row++) {
+            String e164 = e164Phones.get(row);
+            List<ContactInfo.Attribute> attributes = new ArrayList<>(attributeKeys.size());
 
-                attributes.add(ContactInfo.Attribute.builder()
-                        .key(key)
-                        .value(value)
-                        .build());
+            for (int i = 0; i < attributeKeys.size(); i++) {
+                String key = attributeKeys.get(i);
+                String value = values.get(row, i);
+                // No definition, or no value stored for this contact → return key name as value (per spec)
+                attributes.add(new ContactInfo.Attribute(key, value != null ? value : key));
             }
 
             result.add(ContactInfo.builder()
-                    .contactId(contact.getId())
+                    .contactId(rowIds[row])
                     .phoneNumber(e164)           // return normalized E.164 phone
                     .attributes(attributes)
                     .build());
@@ -161,36 +177,113 @@ public class ContactBulkAttributeService {
     // ── Private helpers ───────────────────────────────────────────────────────
 
     /**
-     * Create a new contact using the phone number as display name.
+     * Create contacts for the missing phones ("Unknown" display name, INTEGRATION source):
+     * one multi-row INSERT through JDBC (rewriteBatchedStatements) — no per-contact save()
+     * and IDENTITY round trip — then the generated ids are read back in chunked IN queries.
+     * Only ids above the highest id seen before the insert are read, so older contacts
+     * with the same phone are never taken for new ones. The search index, stats, phone
+     * cache and Bloom filter are maintained for every created contact.
+     *
+     * @return ids of the created contacts; phoneToContactId is filled in for them
      */
-    private Contact createContact(String e164Phone, Long organizationId) {
-        Contact contact = new Contact();
-        contact.setOrganizationId(organizationId);
-        contact.setWaPhoneE164(e164Phone);
-        contact.setWaId(PhoneNumberUtil.generateWhatsAppId(e164Phone));
-        contact.setDisplayName("Unknown");           // phone as name per spec
-        contact.setSource(Contact.Source.INTEGRATION);
-        contact.setFirstSeenAt(LocalDateTime.now());
-        return contactRepository.save(contact);
+    private List<Long> createContacts(
+            List<String> e164Phones,
+            Long organizationId,
+            Map<String, Long> phoneToContactId
+    ) {
+        if (e164Phones.isEmpty()) return List.of();
+
+        long maxIdBefore = contactRepository.findMaxId();
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        String source = Contact.Source.INTEGRATION.name().toLowerCase();   // as SourceConverter stores it
+
+        jdbcTemplate.batchUpdate(INSERT_CONTACT_SQL, e164Phones, INSERT_BATCH_SIZE, (ps, e164) -> {
+            ps.setLong(1, organizationId);
+            ps.setString(2, e164);
+            ps.setString(3, new StringBuilder(e164).reverse().toString());
+            ps.setString(4, PhoneNumberUtil.generateWhatsAppId(e164));
+            ps.setString(5, "Unknown");
+            ps.setString(6, source);
+            ps.setTimestamp(7, timestamp);
+            ps.setTimestamp(8, timestamp);
+            ps.setTimestamp(9, timestamp);
+        });
+
+        Map<String, Long> created = new HashMap<>(e164Phones.size() * 2);
+        for (int from = 0; from < e164Phones.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = e164Phones.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, e164Phones.size()));
+            for (ContactPhoneRow row : contactRepository.findPhoneRowsAfterId(organizationId, chunk, maxIdBefore)) {
+                created.putIfAbsent(row.waPhoneE164(), row.id());
+            }
+        }
+        if (created.size() != e164Phones.size()) {
+            throw new IllegalStateException("Inserted " + e164Phones.size()
+                    + " contacts but read back " + created.size());
+        }
+
+        List<Contact> contacts = new ArrayList<>(e164Phones.size());
+        for (String e164 : e164Phones) {
+            Contact contact = new Contact();
+            contact.setId(created.get(e164));
+            contact.setOrganizationId(organizationId);
+            contact.setWaPhoneE164(e164);
+            contact.setDisplayName("Unknown");
+            contacts.add(contact);
+
+            phoneToContactId.put(e164, contact.getId());
+            phoneContactCache.put(organizationId, e164, contact.getId());
+            phoneBloomFilters.add(organizationId, e164);
+        }
+
+        contactSearchIndexService.indexNew(contacts);
+        // Every created contact is linked to the request's project below
+        contactStatsService.initializeAll(created.values(), organizationId, 1);
+
+        log.debug("Auto-created {} contacts for org {}", contacts.size(), organizationId);
+        return contacts.stream().map(Contact::getId).toList();
     }
 
     /**
-     * Upsert a row in project_contacts for the given contact + project.
-     * Does nothing if the link already exists.
+     * Link the contacts to the project where not linked yet: existing links are found
+     * with chunked IN queries on uk_project_contact, the rest inserted in one batch.
+     * Freshly created contacts (whose stats already count this project) are skipped
+     * in the project counter update.
+     *
+     * @return true when at least one new link was created
      */
-    private void linkContactToProject(Long contactId, Long projectId) {
-        boolean alreadyLinked =
-                projectContactRepository.existsByProjectIdAndContactId(projectId, contactId);
-
-        if (!alreadyLinked) {
-            ProjectContact pc = new ProjectContact();
-            pc.setProjectId(projectId);
-            pc.setContactId(contactId);
-            pc.setLastMessageAt(LocalDateTime.now());
-            pc.setUnreadCount(0);
-            projectContactRepository.save(pc);
-            log.debug("Linked contact {} to project {}", contactId, projectId);
+    private boolean linkContactsToProject(
+            List<Long> contactIds,
+            Set<Long> createdContactIds,
+            Long projectId,
+            Long organizationId
+    ) {
+        Set<Long> alreadyLinked = new HashSet<>();
+        for (int from = 0; from < contactIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = contactIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, contactIds.size()));
+            if (chunk.stream().anyMatch(id -> !createdContactIds.contains(id))) {
+                alreadyLinked.addAll(projectContactRepository.findLinkedContactIds(projectId, chunk));
+            }
         }
+
+        List<Long> toLink = contactIds.stream()
+                .filter(id -> !alreadyLinked.contains(id))
+                .toList();
+        if (toLink.isEmpty()) return false;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PROJECT_CONTACT_SQL, toLink, INSERT_BATCH_SIZE, (ps, contactId) -> {
+            ps.setLong(1, projectId);
+            ps.setLong(2, contactId);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+        });
+
+        contactStatsService.addProjects(
+                toLink.stream().filter(id -> !createdContactIds.contains(id)).toList(), organizationId, 1);
+        log.debug("Linked {} contacts to project {}", toLink.size(), projectId);
+        return true;
     }
 
     /**
@@ -244,36 +337,6 @@ public class ContactBulkAttributeService {
         return result;
     }
 
-    /**
-     * Extract the stored string value from a ContactAttributeValue.
-     * Falls back to the key name if every field is null/empty.
-     */
-    private String extractValue(ContactAttributeValue attr, String fallback) {
-        if (attr.getValueText() != null && !attr.getValueText().isEmpty()) {
-            return attr.getValueText();
-        }
-        if (attr.getValueNumber() != null) {
-            return attr.getValueNumber().toString();
-        }
-        if (attr.getValueDecimal() != null) {
-            return attr.getValueDecimal().toPlainString();
-        }
-        if (attr.getValueBool() != null) {
-            return attr.getValueBool().toString();
-        }
-        if (attr.getValueDate() != null) {
-            return attr.getValueDate().toString();
-        }
-        if (attr.getValueDatetime() != null) {
-            return attr.getValueDatetime().toString();
-        }
-        if (attr.getValueJson() != null && !attr.getValueJson().isEmpty()) {
-            return attr.getValueJson();
-        }
-        // Nothing stored → return key name as value (per spec)
-        return fallback;
-    }
-
     private String capitalize(String str) {
         if (str == null || str.isEmpty()) return str;
         return Character.toUpperCase(str.charAt(0)) + str.substring(1);
@@ -0,0 +1,118 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
+import com.aigreentick.services.contacts.dto.response.ContactFacetResponse;
+import com.aigreentick.services.contacts.entity.Contact;
+import com.aigreentick.services.contacts.entity.ContactTag;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.repository.ContactTagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Facet counts (per source, per tag, top values of one attribute) for a contact search.
+ *
+ * Each facet is a single grouped query over the same search Specification, so the cost no
+ * longer grows with the number of facet values. The total comes from summing the source
+ * groups (every contact has exactly one source) rather than from a separate count.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContactFacetService {
+
+    private static final int DEFAULT_ATTRIBUTE_LIMIT = 10;
+    private static final int MAX_ATTRIBUTE_LIMIT = 100;
+
+    private final ContactRepository contactRepository;
+    private final ContactTagRepository tagRepository;
+    private final ContactSpecificationBuilder specificationBuilder;
+    private final AttributeDefinitionResolver attributeDefinitionResolver;
+
+    @Transactional(readOnly = true)
+    public ContactFacetResponse getFacets(
+            ContactSearchRequest searchRequest,
+            Long organizationId,
+            String facetAttributeKey,
+            Integer attributeLimit
+    ) {
+        log.info("Computing facets for org: {}, attribute: {}", organizationId, facetAttributeKey);
+
+        Specification<Contact> spec = specificationBuilder.build(searchRequest, organizationId);
+
+        // ── Sources (and total) ──────────────────────────────────────────────
+        long total = 0;
+        List<ContactFacetResponse.FacetCount> sources = new ArrayList<>();
+        for (Object[] row : contactRepository.countGroupedBySource(spec)) {
+            long count = (Long) row[1];
+            total += count;
+            sources.add(ContactFacetResponse.FacetCount.builder()
+                    .value(((Contact.Source) row[0]).name().toLowerCase())
+                    .count(count)
+                    .build());
+        }
+        sources.sort(Comparator.comparing(ContactFacetResponse.FacetCount::getCount).reversed());
+
+        // ── Tags ─────────────────────────────────────────────────────────────
+        List<ContactFacetResponse.TagFacet> tags = new ArrayList<>();
+        if (total > 0) {
+            List<Object[]> tagRows = contactRepository.countGroupedByTag(spec);
+            Map<Long, ContactTag> tagsById = tagRepository.findAllById(
+                            tagRows.stream().map(row -> (Long) row[0]).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(ContactTag::getId, Function.identity()));
+
+            for (Object[] row : tagRows) {
+                ContactTag tag = tagsById.get((Long) row[0]);
+                if (tag == null) continue;
+                tags.add(ContactFacetResponse.TagFacet.builder()
+                        .tagId(tag.getId())
+                        .name(tag.getName())
+                        .color(tag.getColor())
+                        .count((Long) row[1])
+                        .build());
+            }
+            tags.sort(Comparator.comparing(ContactFacetResponse.TagFacet::getCount).reversed());
+        }
+
+        // ── Attribute top values ─────────────────────────────────────────────
+        ContactFacetResponse.AttributeFacet attribute = null;
+        if (facetAttributeKey != null && !facetAttributeKey.trim().isEmpty()) {
+            String key = facetAttributeKey.trim();
+            int limit = attributeLimit == null
+                    ? DEFAULT_ATTRIBUTE_LIMIT
+                    : Math.max(1, Math.min(attributeLimit, MAX_ATTRIBUTE_LIMIT));
+
+            List<ContactFacetResponse.FacetCount> values = total == 0
+                    ? List.of()
+                    : attributeDefinitionResolver.resolve(organizationId, key)
+                            .map(def -> contactRepository.countGroupedByAttributeValue(spec, def.getId(), limit))
+                            .orElse(List.of())
+                            .stream()
+                            .map(row -> ContactFacetResponse.FacetCount.builder()
+                                    .value((String) row[0])
+                                    .count((Long) row[1])
+                                    .build())
+                            .collect(Collectors.toList());
+
+            attribute = ContactFacetResponse.AttributeFacet.builder()
+                    .key(key)
+                    .values(values)
+                    .build();
+        }
+
+        return ContactFacetResponse.builder()
+                .totalElements(total)
+                .sources(sources)
+                .tags(tags)
+                .attribute(attribute)
+                .build();
+    }
+}
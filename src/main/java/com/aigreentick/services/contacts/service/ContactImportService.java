@@ -4,6 +4,7 @@ import com.aigreentick.services.contacts.dto.request.ContactImportRequest;
 import com.aigreentick.services.contacts.dto.response.ContactImportResponse;
 import com.aigreentick.services.contacts.entity.*;
 import com.aigreentick.services.contacts.repository.*;
+import com.aigreentick.services.contacts.util.AttributeValueUtil;
 import com.aigreentick.services.contacts.util.PhoneNumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,12 @@ public class ContactImportService {
     private final ContactRepository contactRepository;
     private final ContactAttributeValueRepository attributeValueRepository;
     private final AttributeDefinitionRepository attributeDefinitionRepository;
+    private final ContactStatsService contactStatsService;
+    private final ContactSearchIndexService contactSearchIndexService;
+    private final SegmentService segmentService;
+    private final ContactSearchCache contactSearchCache;
+    private final PhoneContactCache phoneContactCache;
+    private final PhoneBloomFilters phoneBloomFilters;
 
     /**
      * Import contacts in bulk
@@ -46,6 +53,7 @@ public class ContactImportService {
         int skippedCount = 0;
 
         List<ContactImportResponse.ImportError> errors = new ArrayList<>();
+        List<Long> touchedContactIds = new ArrayList<>();
 
         // Pre-load existing contacts by phone for this organization
         Map<String, Contact> existingContactsMap = new HashMap<>();
@@ -92,17 +100,23 @@ public class ContactImportService {
                     // Contact exists
                     if (request.getUpdateExisting()) {
                         // Update existing contact
+                        boolean nameChanged = !Objects.equals(contact.getDisplayName(), item.getName());
                         contact.setDisplayName(item.getName());
                         contact = contactRepository.save(contact);
+                        if (nameChanged) {
+                            contactSearchIndexService.index(contact);
+                        }
 
                         // Update attributes
-                        updateContactAttributes(
+                        int addedAttributes = updateContactAttributes(
                                 contact.getId(),
                                 item.getAttributes(),
                                 organizationId,
                                 attributeDefinitionsMap,
                                 request.getCreateNewAttributes()
                         );
+                        contactStatsService.addAttributes(contact.getId(), organizationId, addedAttributes);
+                        touchedContactIds.add(contact.getId());
 
                         updatedCount++;
                         successCount++;
@@ -126,11 +140,15 @@ public class ContactImportService {
                     contact.setFirstSeenAt(LocalDateTime.now());
 
                     contact = contactRepository.save(contact);
+                    contactSearchIndexService.index(contact);
+                    phoneContactCache.put(organizationId, e164Phone, contact.getId());
+                    phoneBloomFilters.add(organizationId, e164Phone);
                     existingContactsMap.put(e164Phone, contact); // Add to map for subsequent rows
 
                     // Create attributes
+                    int createdAttributes = 0;
                     if (item.getAttributes() != null && !item.getAttributes().isEmpty()) {
-                        createContactAttributes(
+                        createdAttributes = createContactAttributes(
                                 contact.getId(),
                                 item.getAttributes(),
                                 organizationId,
@@ -138,6 +156,8 @@ public class ContactImportService {
                                 request.getCreateNewAttributes()
                         );
                     }
+                    contactStatsService.initialize(contact.getId(), organizationId, createdAttributes, 0, 0, 0);
+                    touchedContactIds.add(contact.getId());
 
                     createdCount++;
                     successCount++;
@@ -160,6 +180,10 @@ public class ContactImportService {
             }
         }
 
+        // Re-evaluate saved segments once for the whole import rather than per row
+        segmentService.refreshMembership(organizationId, touchedContactIds);
+        contactSearchCache.invalidate(organizationId);
+
         log.info("Import completed - Total: {}, Success: {}, Failed: {}, Created: {}, Updated: {}, Skipped: {}",
                 totalProcessed, successCount, failedCount, createdCount, updatedCount, skippedCount);
 
@@ -176,8 +200,10 @@ public class ContactImportService {
 
     /**
      * Helper: Create attributes for a contact during import
+     *
+     * @return number of attribute values created
      */
-    private void createContactAttributes(
+    private int createContactAttributes(
             Long contactId,
             Map<String, String> attributes,
             Long organizationId,
@@ -186,9 +212,11 @@ public class ContactImportService {
     ) {
 
         if (attributes == null || attributes.isEmpty()) {
-            return;
+            return 0;
         }
 
+        int created = 0;
+
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
             String key = entry.getKey().trim();
             String value = entry.getValue();
@@ -227,17 +255,22 @@ public class ContactImportService {
             ContactAttributeValue attributeValue = new ContactAttributeValue();
             attributeValue.setContactId(contactId);
             attributeValue.setAttributeDefinitionId(definition.getId());
-            attributeValue.setValueText(value);
+            AttributeValueUtil.assign(attributeValue, definition, value);
             attributeValue.setUpdatedSource(ContactAttributeValue.UpdatedSource.integration);
 
             attributeValueRepository.save(attributeValue);
+            created++;
         }
+
+        return created;
     }
 
     /**
      * Helper: Update attributes for existing contact during import
+     *
+     * @return number of attribute values newly created (updates in place are not counted)
      */
-    private void updateContactAttributes(
+    private int updateContactAttributes(
             Long contactId,
             Map<String, String> attributes,
             Long organizationId,
@@ -246,9 +279,11 @@ public class ContactImportService {
     ) {
 
         if (attributes == null || attributes.isEmpty()) {
-            return;
+            return 0;
         }
 
+        int created = 0;
+
         // Load existing attributes
         List<ContactAttributeValue> existingAttributes =
                 attributeValueRepository.findByContactId(contactId);
@@ -293,7 +328,7 @@ public class ContactImportService {
 
             if (attributeValue != null) {
                 // Update existing
-                attributeValue.setValueText(value);
+                AttributeValueUtil.assign(attributeValue, definition, value);
                 attributeValue.setUpdatedSource(ContactAttributeValue.UpdatedSource.integration);
                 attributeValueRepository.save(attributeValue);
             } else {
@@ -301,11 +336,15 @@ public class ContactImportService {
                 attributeValue = new ContactAttributeValue();
                 attributeValue.setContactId(contactId);
                 attributeValue.setAttributeDefinitionId(definition.getId());
-                attributeValue.setValueText(value);
+                AttributeValueUtil.assign(attributeValue, definition, value);
                 attributeValue.setUpdatedSource(ContactAttributeValue.UpdatedSource.integration);
                 attributeValueRepository.save(attributeValue);
+                created++;
+                existingAttributesMap.put(definition.getId(), attributeValue);
             }
         }
+
+        return created;
     }
 
     /**
@@ -0,0 +1,92 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.projection.ContactPhoneRow;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Bulk phone → contact id resolution for one organization.
+ *
+ * Phones found in PhoneContactCache are answered from it; for the rest PhoneBloomFilters
+ * drops the definitely-unknown ones and the remainder are looked up with
+ * chunked IN queries on idx_org_phone that return only (id, wa_phone_e164), so resolving
+ * N phones costs at most ceil(N / CHUNK_SIZE) round trips instead of N. Callers normalize
+ * to E.164 first and map the result back to whatever format their contract requires.
+ *
+ * Project-scoped resolution uses the organization-level cache / filter only to drop
+ * phones that are not contacts at all, then joins the rest through project_contacts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContactPhoneResolver {
+
+    // Keeps each statement well under max_allowed_packet and the IN-list range optimizer limits
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ContactRepository contactRepository;
+    private final PhoneContactCache phoneContactCache;
+    private final PhoneBloomFilters phoneBloomFilters;
+
+    /**
+     * Resolve E.164 phones to contact ids. Unknown phones are absent from the result;
+     * duplicate input phones are looked up once.
+     */
+    public Map<String, Long> resolveIds(Long organizationId, Collection<String> e164Phones) {
+        return resolve(organizationId, null, e164Phones);
+    }
+
+    /**
+     * Same as {@link #resolveIds}, limited to contacts linked to the project; phones whose
+     * contact is not in the project are absent.
+     */
+    public Map<String, Long> resolveIdsInProject(Long organizationId, Long projectId, Collection<String> e164Phones) {
+        return resolve(organizationId, projectId, e164Phones);
+    }
+
+    private Map<String, Long> resolve(Long organizationId, Long projectId, Collection<String> e164Phones) {
+        Set<String> distinct = new LinkedHashSet<>(e164Phones);
+        Map<String, Long> result = new HashMap<>(distinct.size() * 2);
+
+        PhoneContactCache.Lookup cached = phoneContactCache.lookup(organizationId, distinct);
+        List<String> phones = cached.uncached();
+        if (projectId == null) {
+            result.putAll(cached.resolved());
+        } else {
+            // The cache only knows the organization: its hits still need the project check
+            phones = new ArrayList<>(phones);
+            phones.addAll(cached.resolved().keySet());
+        }
+
+        PhoneBloomFilters.Screening screening = null;
+        if (!phones.isEmpty()) {
+            screening = phoneBloomFilters.screen(organizationId, phones);
+            phones = screening.candidates();
+        }
+
+        int found = 0;
+        for (int from = 0; from < phones.size(); from += CHUNK_SIZE) {
+            List<String> chunk = phones.subList(from, Math.min(from + CHUNK_SIZE, phones.size()));
+            List<ContactPhoneRow> rows = projectId == null
+                    ? contactRepository.findPhoneRows(organizationId, chunk)
+                    : contactRepository.findPhoneRowsInProject(organizationId, projectId, chunk);
+            for (ContactPhoneRow row : rows) {
+                // Rows come back in id order: if a phone is duplicated, the oldest contact wins
+                if (result.putIfAbsent(row.waPhoneE164(), row.id()) == null) found++;
+            }
+        }
+        if (screening != null && screening.screened() && projectId == null) {
+            // Every candidate the database did not know was a false positive (project-scoped
+            // misses may just be contacts outside the project, so they are not counted)
+            phoneBloomFilters.recordFalsePositives(phones.size() - found);
+        }
+
+        log.debug("Resolved {}/{} phones for org {}, project {} ({} from the database)",
+                result.size(), distinct.size(), organizationId, projectId, phones.size());
+        return result;
+    }
+}
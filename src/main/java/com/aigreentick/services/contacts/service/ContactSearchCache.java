@@ -0,0 +1,161 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
+import com.aigreentick.services.contacts.dto.response.ContactListItemResponse;
+import com.aigreentick.services.contacts.dto.response.PageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of contact list / search pages, keyed by
+ * (organizationId, organization version, normalized request).
+ *
+ * Every write path that changes what a list page shows (contacts, attribute values, tags,
+ * notes, project links) calls {@link #invalidate(Long)}, which bumps the organization's
+ * version once the transaction commits. Entries of older versions are never looked up
+ * again and age out of the LRU. The version is read before the page is loaded, so a page
+ * computed concurrently with a write can only be stored under the pre-write version.
+ *
+ * Writes made outside this service (another service updating the tables directly) are not
+ * seen, so entries also expire after {@link #ENTRY_TTL_MILLIS}.
+ *
+ * With a read replica configured, pages are loaded from it and may miss a write for up to
+ * its max lag; pages loaded that soon after an invalidation are returned but not cached.
+ */
+@Slf4j
+@Component
+public class ContactSearchCache {
+
+    private static final int MAX_ENTRIES = 1_000;
+    private static final long ENTRY_TTL_MILLIS = 5 * 60 * 1000L;
+    // Larger pages are not worth the memory; they are always loaded from the database
+    private static final int MAX_CACHED_PAGE_SIZE = 200;
+
+    private final ObjectMapper objectMapper;
+    private final long replicaLagMillis;
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    private final Map<CacheKey, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public ContactSearchCache(
+            ObjectMapper objectMapper,
+            @Value("${contacts.datasource.replica.url:}") String replicaUrl,
+            @Value("${contacts.datasource.replica.max-lag:5s}") Duration replicaMaxLag
+    ) {
+        this.objectMapper = objectMapper;
+        this.replicaLagMillis = replicaUrl.isBlank() ? 0 : replicaMaxLag.toMillis();
+    }
+
+    /**
+     * Return the cached page for this request, or load and cache it.
+     */
+    public PageResponse<ContactListItemResponse> getOrLoad(
+            Long organizationId,
+            ContactSearchRequest request,
+            Supplier<PageResponse<ContactListItemResponse>> loader
+    ) {
+        if (request.getSize() == null || request.getSize() > MAX_CACHED_PAGE_SIZE) {
+            return loader.get();
+        }
+
+        CacheKey key = new CacheKey(organizationId, currentVersion(organizationId), normalize(request));
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            CacheEntry cached = entries.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                log.debug("Contact search cache hit for org: {}", organizationId);
+                return cached.page();
+            }
+        }
+
+        PageResponse<ContactListItemResponse> page = loader.get();
+        Long lastInvalidation = invalidatedAt.get(organizationId);
+        if (lastInvalidation != null && now - lastInvalidation < replicaLagMillis) {
+            return page;   // the replica may not show the write yet
+        }
+        synchronized (entries) {
+            entries.put(key, new CacheEntry(page, now + ENTRY_TTL_MILLIS));
+        }
+        return page;
+    }
+
+    /**
+     * Invalidate every cached page of the organization once the current transaction commits
+     * (immediately when called outside a transaction).
+     */
+    public void invalidate(Long organizationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(organizationId);
+                }
+            });
+        } else {
+            bumpVersion(organizationId);
+        }
+    }
+
+    private long currentVersion(Long organizationId) {
+        return versions.computeIfAbsent(organizationId, id -> new AtomicLong()).get();
+    }
+
+    private void bumpVersion(Long organizationId) {
+        if (replicaLagMillis > 0) invalidatedAt.put(organizationId, System.currentTimeMillis());
+        versions.computeIfAbsent(organizationId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Deep copy of the request with equivalent spellings collapsed, so that e.g. source
+     * "import" and "IMPORT", or tagIds [3, 1] and [1, 3], share an entry. The copy also
+     * guarantees the key cannot change if the caller mutates its request afterwards.
+     */
+    private ContactSearchRequest normalize(ContactSearchRequest request) {
+        ContactSearchRequest copy = objectMapper.convertValue(request, ContactSearchRequest.class);
+        // search is matched as typed (surrounding spaces are significant), so only blank is collapsed
+        copy.setSearch(copy.getSearch() == null || copy.getSearch().isBlank() ? null : copy.getSearch());
+        copy.setPhone(trimToNull(copy.getPhone()));
+        copy.setSource(copy.getSource() != null && !copy.getSource().isBlank()
+                ? copy.getSource().toUpperCase(Locale.ROOT) : null);
+        copy.setAttributeKey(trimToNull(copy.getAttributeKey()));
+        copy.setTagIds(sortedDistinct(copy.getTagIds()));
+        copy.setAllTagIds(sortedDistinct(copy.getAllTagIds()));
+        copy.setExcludedTagIds(sortedDistinct(copy.getExcludedTagIds()));
+        copy.setSortDirection(copy.getSortDirection() != null
+                ? copy.getSortDirection().toUpperCase(Locale.ROOT) : null);
+        return copy;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static List<Long> sortedDistinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return null;
+        return ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+    }
+
+    private record CacheKey(Long organizationId, long version, ContactSearchRequest request) {
+    }
+
+    private record CacheEntry(PageResponse<ContactListItemResponse> page, long expiresAt) {
+    }
+}
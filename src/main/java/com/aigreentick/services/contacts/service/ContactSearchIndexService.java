@@ -0,0 +1,206 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.entity.Contact;
+import com.aigreentick.services.contacts.entity.ContactSearchToken;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.repository.ContactSearchTokenRepository;
+import com.aigreentick.services.contacts.util.SearchTokenUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps contact_search_tokens in sync with contact display name and phone.
+ *
+ * Writers call {@link #index(Contact)} / {@link #remove(Long)} inside their own transaction,
+ * so the token rows commit together with the contact row. Contacts that existed before the
+ * index was introduced are picked up by a one-off backfill, which also fills
+ * contacts.reversed_phone (the phone suffix index) for legacy rows.
+ *
+ * The backfill runs in the background under a {@link ClusterLock}, so only one instance
+ * does the work; it is started when the application is ready and retried every minute
+ * until this instance has seen it complete (an instance that lost the lock finds nothing
+ * left to do once the winner is done). Until then {@link #isTokenBackfillComplete()} /
+ * {@link #isReversedPhoneBackfillComplete()} are false and search falls back to the plain
+ * LIKE predicates, so contacts not yet covered are not excluded from results.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContactSearchIndexService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    // Id range per reversed_phone UPDATE: a primary key range scan, so no chunk rescans filled rows
+    private static final int REVERSED_PHONE_BACKFILL_CHUNK = 5000;
+    // Attempts at one batch that conflicts with tokens inserted by a concurrent write
+    private static final int BACKFILL_BATCH_ATTEMPTS = 3;
+    private static final String BACKFILL_LOCK = "contacts.search-index-backfill";
+
+    private final ContactSearchTokenRepository tokenRepository;
+    private final ContactRepository contactRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ClusterLock clusterLock;
+    private final ExecutorService queryExecutor;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile boolean tokenBackfillComplete;
+    private volatile boolean reversedPhoneBackfillComplete;
+
+    /**
+     * (Re)build the tokens for one contact. Must run after the contact has an id.
+     */
+    @Transactional
+    public void index(Contact contact) {
+        tokenRepository.deleteByContactId(contact.getId());
+        tokenRepository.saveAll(buildTokens(contact));
+    }
+
+    /**
+     * Tokens for contacts that have none yet (just inserted), in one batched save.
+     */
+    @Transactional
+    public void indexNew(List<Contact> contacts) {
+        List<ContactSearchToken> tokens = new ArrayList<>();
+        for (Contact contact : contacts) {
+            tokens.addAll(buildTokens(contact));
+        }
+        tokenRepository.saveAll(tokens);
+    }
+
+    @Transactional
+    public void remove(Long contactId) {
+        tokenRepository.deleteByContactId(contactId);
+    }
+
+    /**
+     * Whether every contact is known to have search tokens. Until it is, the token
+     * subquery would hide unindexed contacts and must not be used.
+     */
+    public boolean isTokenBackfillComplete() {
+        return tokenBackfillComplete;
+    }
+
+    /**
+     * Whether every contact is known to have reversed_phone filled. Until it is, the
+     * phone suffix filter must match on wa_phone_e164 instead.
+     */
+    public boolean isReversedPhoneBackfillComplete() {
+        return reversedPhoneBackfillComplete;
+    }
+
+    // ── Backfill ──────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleBackfill();
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void scheduleBackfill() {
+        if (tokenBackfillComplete && reversedPhoneBackfillComplete) return;
+        // Off the scheduler thread: a first backfill can take minutes
+        if (!backfillRunning.compareAndSet(false, true)) return;
+        queryExecutor.execute(() -> {
+            try {
+                boolean ran = clusterLock.runExclusively(BACKFILL_LOCK, () -> {
+                    if (!reversedPhoneBackfillComplete) reversedPhoneBackfillComplete = backfillReversedPhones();
+                    if (!tokenBackfillComplete) tokenBackfillComplete = backfillTokens();
+                });
+                if (!ran) log.debug("Search index backfill is running on another instance");
+            } catch (RuntimeException e) {
+                log.warn("Search index backfill failed, will retry: {}", e.getMessage());
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+    }
+
+    /**
+     * Index every contact that has no tokens yet, in id order and in small transactions.
+     * Returns whether it got through every contact.
+     */
+    private boolean backfillTokens() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long afterId = 0L;
+        int indexed = 0;
+        int attempts = 0;
+
+        while (true) {
+            final long cursor = afterId;
+            List<Contact> batch;
+            try {
+                batch = tx.execute(status -> {
+                    List<Contact> contacts = contactRepository.findUnindexedAfter(
+                            cursor, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                    List<ContactSearchToken> tokens = new ArrayList<>();
+                    for (Contact contact : contacts) {
+                        tokens.addAll(buildTokens(contact));
+                    }
+                    tokenRepository.saveAll(tokens);
+                    return contacts;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // A write path indexed one of these contacts meanwhile; the retry no longer sees it
+                if (++attempts >= BACKFILL_BATCH_ATTEMPTS) {
+                    log.warn("Search token backfill stopped after id {}: {}", cursor, e.getMessage());
+                    return false;
+                }
+                continue;
+            }
+
+            attempts = 0;
+            if (batch == null || batch.isEmpty()) break;
+            indexed += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+
+        if (indexed > 0) {
+            log.info("Search token backfill complete — indexed {} contacts", indexed);
+        }
+        return true;
+    }
+
+    /**
+     * Fill contacts.reversed_phone for rows written before the column existed.
+     * Runs in bounded id ranges so no single UPDATE holds locks on the whole table. Rows
+     * above the starting max id are written with reversed_phone already set.
+     */
+    private boolean backfillReversedPhones() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long maxId = contactRepository.findMaxId();
+        int total = 0;
+        for (long fromId = 0; fromId < maxId; fromId += REVERSED_PHONE_BACKFILL_CHUNK) {
+            final long from = fromId;
+            Integer updated = tx.execute(status ->
+                    contactRepository.backfillReversedPhones(from, from + REVERSED_PHONE_BACKFILL_CHUNK));
+            total += updated != null ? updated : 0;
+        }
+
+        if (total > 0) {
+            log.info("Reversed phone backfill complete — updated {} contacts", total);
+        }
+        return true;
+    }
+
+    private List<ContactSearchToken> buildTokens(Contact contact) {
+        List<ContactSearchToken> tokens = new ArrayList<>();
+        for (String token : SearchTokenUtil.contactTokens(contact.getDisplayName(), contact.getWaPhoneE164())) {
+            tokens.add(ContactSearchToken.of(contact.getOrganizationId(), contact.getId(), token));
+        }
+        return tokens;
+    }
+}
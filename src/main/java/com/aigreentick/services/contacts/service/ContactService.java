@@ -1,22 +1,31 @@
 package com.aigreentick.services.contacts.service;
 
+import com.aigreentick.services.contacts.dto.projection.AttributeListRow;
+import com.aigreentick.services.contacts.dto.projection.ContactListRow;
+import com.aigreentick.services.contacts.dto.projection.TagListRow;
 import com.aigreentick.services.contacts.dto.request.*;
 import com.aigreentick.services.contacts.dto.response.*;
 import com.aigreentick.services.contacts.entity.*;
 import com.aigreentick.services.contacts.exception.*;
 import com.aigreentick.services.contacts.mapper.ContactMapper;
 import com.aigreentick.services.contacts.repository.*;
-import com.aigreentick.services.contacts.specification.ContactSpecifications;
+import com.aigreentick.services.contacts.util.AttributeValueUtil;
 import com.aigreentick.services.contacts.util.PhoneNumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,7 +40,17 @@ public class ContactService {
     private final ContactTagRepository tagRepository;
     private final ContactNoteRepository noteRepository;
     private final ProjectContactRepository projectContactRepository;
+    private final ContactStatsService contactStatsService;
+    private final ContactSearchIndexService contactSearchIndexService;
+    private final ContactSpecificationBuilder specificationBuilder;
+    private final SegmentService segmentService;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final ContactSearchCache contactSearchCache;
+    private final PhoneContactCache phoneContactCache;
+    private final PhoneBloomFilters phoneBloomFilters;
     private final ContactMapper contactMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService queryExecutor;
 
     // ── Create ────────────────────────────────────────────────────────────────
 
@@ -56,6 +75,9 @@ public class ContactService {
         contact.setSource(Contact.Source.MANUAL);
         contact.setFirstSeenAt(LocalDateTime.now());
         contact = contactRepository.save(contact);
+        contactSearchIndexService.index(contact);
+        phoneContactCache.put(organizationId, e164Phone, contact.getId());
+        phoneBloomFilters.add(organizationId, e164Phone);
         log.info("Contact created with ID: {}", contact.getId());
 
         // FIX: Batch-load all attribute definitions up front instead of one query per key (N+1)
@@ -91,6 +113,13 @@ public class ContactService {
             notes.add(noteRepository.save(note));
         }
 
+        contactStatsService.initialize(contact.getId(), organizationId,
+                attributes.size(), tagAssignments.size(), notes.size(), 0);
+        tagBitmapIndex.replaceContactTags(organizationId, contact.getId(),
+                tagAssignments.stream().map(ContactTagAssignment::getTagId).toList());
+        segmentService.refreshMembership(organizationId, List.of(contact.getId()));
+        contactSearchCache.invalidate(organizationId);
+
         return contactMapper.toResponse(contact, attributes, tagAssignments, tags, notes, attributeDefinitions);
     }
 
@@ -98,12 +127,23 @@ public class ContactService {
 
     @Transactional(readOnly = true)
     public ContactResponse getContactById(Long contactId, Long organizationId) {
+        return getContactById(contactId, organizationId, ContactFields.ALL);
+    }
+
+    /**
+     * Load only what the fieldset asks for: attributes, tags and notes are each skipped
+     * entirely (no query, no mapping) when not requested.
+     */
+    @Transactional(readOnly = true)
+    public ContactResponse getContactById(Long contactId, Long organizationId, ContactFields fields) {
         log.info("Fetching contact: {} for org: {}", contactId, organizationId);
 
         Contact contact = contactRepository.findByIdAndOrganizationId(contactId, organizationId)
                 .orElseThrow(() -> new ContactNotFoundException(contactId));
 
-        List<ContactAttributeValue> attributes = attributeValueRepository.findByContactId(contactId);
+        List<ContactAttributeValue> attributes = fields.has(ContactFields.Field.ATTRIBUTES)
+                ? attributeValueRepository.findByContactId(contactId)
+                : List.of();
 
         Map<Long, AttributeDefinition> attributeDefinitions = new HashMap<>();
         if (!attributes.isEmpty()) {
@@ -114,7 +154,9 @@ public class ContactService {
                     .forEach(def -> attributeDefinitions.put(def.getId(), def));
         }
 
-        List<ContactTagAssignment> tagAssignments = tagAssignmentRepository.findByContactId(contactId);
+        List<ContactTagAssignment> tagAssignments = fields.has(ContactFields.Field.TAGS)
+                ? tagAssignmentRepository.findByContactId(contactId)
+                : List.of();
 
         List<ContactTag> tags = new ArrayList<>();
         if (!tagAssignments.isEmpty()) {
@@ -125,17 +167,24 @@ public class ContactService {
         }
 
         // FIX: .limit(5) applied once here; mapper no longer applies its own limit
-        List<ContactNote> notes = noteRepository.findByContactIdOrderByCreatedAtDesc(contactId)
-                .stream()
-                .limit(5)
-                .collect(Collectors.toList());
+        List<ContactNote> notes = fields.has(ContactFields.Field.NOTES)
+                ? noteRepository.findByContactIdOrderByCreatedAtDesc(contactId)
+                        .stream()
+                        .limit(5)
+                        .collect(Collectors.toList())
+                : List.of();
 
-        return contactMapper.toResponse(contact, attributes, tagAssignments, tags, notes, attributeDefinitions);
+        return contactMapper.toResponse(contact, attributes, tagAssignments, tags, notes, attributeDefinitions, fields);
     }
 
     // ── List ──────────────────────────────────────────────────────────────────
 
-    @Transactional(readOnly = true)
+    /**
+     * Repeated identical searches are answered from ContactSearchCache until a write to the
+     * organization invalidates it. Deliberately not @Transactional: a cache hit should not
+     * open a transaction or borrow a connection, and on a miss the page query and the
+     * enrichment lookups each run in their own read-only transaction.
+     */
     public PageResponse<ContactListItemResponse> listContacts(
             ContactSearchRequest searchRequest,
             Long organizationId
@@ -143,7 +192,16 @@ public class ContactService {
         log.info("Listing contacts for org: {}, page: {}, size: {}",
                 organizationId, searchRequest.getPage(), searchRequest.getSize());
 
-        Specification<Contact> spec = buildSpecification(searchRequest, organizationId);
+        return contactSearchCache.getOrLoad(organizationId, searchRequest,
+                () -> loadContactPage(searchRequest, organizationId));
+    }
+
+    private PageResponse<ContactListItemResponse> loadContactPage(
+            ContactSearchRequest searchRequest,
+            Long organizationId
+    ) {
+        ContactFields fields = ContactFields.parse(searchRequest.getFields());
+        Specification<Contact> spec = specificationBuilder.build(searchRequest, organizationId);
 
         Sort sort = Sort.by(
                 searchRequest.getSortDirection().equalsIgnoreCase("ASC")
@@ -152,7 +210,9 @@ public class ContactService {
         );
         Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize(), sort);
 
-        Page<Contact> contactPage = contactRepository.findAll(spec, pageable);
+        // Projections only: no managed entities, no dirty checking, no value_json unless displayed
+        Page<ContactListRow> contactPage =
+                readOnlyTransaction().execute(status -> contactRepository.findListRows(spec, pageable));
 
         if (contactPage.isEmpty()) {
             return PageResponse.<ContactListItemResponse>builder()
@@ -169,57 +229,42 @@ public class ContactService {
         }
 
         List<Long> contactIds = contactPage.getContent().stream()
-                .map(Contact::getId)
+                .map(ContactListRow::id)
                 .collect(Collectors.toList());
 
-        // Batch load attributes
-        List<ContactAttributeValue> allAttributes = attributeValueRepository.findByContactIdIn(contactIds);
-        Map<Long, List<ContactAttributeValue>> attributesByContact = allAttributes.stream()
-                .collect(Collectors.groupingBy(ContactAttributeValue::getContactId));
-
-        Set<Long> attrDefIds = allAttributes.stream()
-                .map(ContactAttributeValue::getAttributeDefinitionId)
-                .collect(Collectors.toSet());
-        Map<Long, AttributeDefinition> attributeDefinitions =
-                attributeDefinitionRepository.findAllById(attrDefIds).stream()
-                        .collect(Collectors.toMap(AttributeDefinition::getId, def -> def));
-
-        // Batch load tag assignments
-        List<ContactTagAssignment> allTagAssignments = tagAssignmentRepository.findByContactIdIn(contactIds);
-        Map<Long, List<ContactTagAssignment>> tagAssignmentsByContact = allTagAssignments.stream()
-                .collect(Collectors.groupingBy(ContactTagAssignment::getContactId));
-
-        Set<Long> tagIds = allTagAssignments.stream()
-                .map(ContactTagAssignment::getTagId)
-                .collect(Collectors.toSet());
-        Map<Long, ContactTag> tagsMap = tagRepository.findAllById(tagIds).stream()
-                .collect(Collectors.toMap(ContactTag::getId, tag -> tag));
-
-        // FIX: Fetch actual note counts per contact instead of hardcoding 0
-        Map<Long, Long> noteCountByContact = contactIds.stream()
-                .collect(Collectors.toMap(
-                        id -> id,
-                        noteRepository::countByContactId
-                ));
+        // Enrichment lookups are independent of each other: run them concurrently, each in its
+        // own read-only transaction (and connection), so the page costs the slowest one.
+        // Lookups for fields the caller did not ask for are not run at all.
+        CompletableFuture<Map<Long, List<AttributeListRow>>> attributesFuture =
+                fields.has(ContactFields.Field.ATTRIBUTES)
+                        ? supplyReadOnly(() -> attributeValueRepository.findListRowsByContactIdIn(contactIds).stream()
+                                .collect(Collectors.groupingBy(AttributeListRow::contactId)))
+                        : CompletableFuture.completedFuture(Map.of());
+
+        CompletableFuture<Map<Long, List<TagListRow>>> tagsFuture =
+                fields.has(ContactFields.Field.TAGS)
+                        ? supplyReadOnly(() -> tagAssignmentRepository.findListRowsByContactIdIn(contactIds).stream()
+                                .collect(Collectors.groupingBy(TagListRow::contactId)))
+                        : CompletableFuture.completedFuture(Map.of());
+
+        // Note / project counts come from the contact_stats aggregate in one batch query
+        CompletableFuture<Map<Long, ContactStats>> statsFuture =
+                fields.has(ContactFields.Field.COUNTS)
+                        ? supplyReadOnly(() -> contactStatsService.getStats(contactIds, organizationId))
+                        : CompletableFuture.completedFuture(Map.of());
+
+        Map<Long, List<AttributeListRow>> attributesByContact = join(attributesFuture);
+        Map<Long, List<TagListRow>> tagsByContact = join(tagsFuture);
+        Map<Long, ContactStats> statsByContact = join(statsFuture);
 
         List<ContactListItemResponse> responseList = contactPage.getContent().stream()
-                .map(contact -> {
-                    List<ContactAttributeValue> contactAttrs =
-                            attributesByContact.getOrDefault(contact.getId(), new ArrayList<>());
-                    List<ContactTagAssignment> contactTagAssignments =
-                            tagAssignmentsByContact.getOrDefault(contact.getId(), new ArrayList<>());
-                    List<ContactTag> contactTags = contactTagAssignments.stream()
-                            .map(a -> tagsMap.get(a.getTagId()))
-                            .filter(Objects::nonNull)
-                            .collect(Collectors.toList());
-
-                    long noteCount = noteCountByContact.getOrDefault(contact.getId(), 0L);
-
-                    return contactMapper.toListItemResponse(
-                            contact, contactAttrs, contactTagAssignments,
-                            contactTags, attributeDefinitions, noteCount
-                    );
-                })
+                .map(contact -> contactMapper.toListItemResponse(
+                        contact,
+                        attributesByContact.getOrDefault(contact.id(), List.of()),
+                        tagsByContact.getOrDefault(contact.id(), List.of()),
+                        statsByContact.get(contact.id()),
+                        fields
+                ))
                 .collect(Collectors.toList());
 
         return PageResponse.<ContactListItemResponse>builder()
@@ -244,6 +289,8 @@ public class ContactService {
         Contact contact = contactRepository.findByIdAndOrganizationId(contactId, organizationId)
                 .orElseThrow(() -> new ContactNotFoundException(contactId));
 
+        boolean searchFieldsChanged = !Objects.equals(contact.getDisplayName(), request.getName());
+
         String newE164Phone = PhoneNumberUtil.normalizeToE164(request.getPhoneNumber());
         if (!contact.getWaPhoneE164().equals(newE164Phone)) {
             Optional<Contact> duplicate = contactRepository
@@ -251,12 +298,19 @@ public class ContactService {
             if (duplicate.isPresent() && !duplicate.get().getId().equals(contactId)) {
                 throw new DuplicateContactException(newE164Phone, duplicate.get().getId());
             }
+            phoneContactCache.remove(organizationId, contact.getWaPhoneE164(), contactId);
+            phoneContactCache.put(organizationId, newE164Phone, contactId);
+            phoneBloomFilters.add(organizationId, newE164Phone);
             contact.setWaPhoneE164(newE164Phone);
             contact.setWaId(PhoneNumberUtil.generateWhatsAppId(newE164Phone));
+            searchFieldsChanged = true;
         }
 
         contact.setDisplayName(request.getName());
         contact = contactRepository.save(contact);
+        if (searchFieldsChanged) {
+            contactSearchIndexService.index(contact);
+        }
 
         // FIX: Only delete + replace attributes when the caller actually sent an attributes map.
         // Previously, omitting the field silently wiped all existing attributes.
@@ -306,6 +360,16 @@ public class ContactService {
             }
         }
 
+        if (request.getAttributes() != null || request.getTagIds() != null) {
+            contactStatsService.replaceAttributeAndTagCounts(
+                    contactId, organizationId, attributes.size(), tagAssignments.size());
+        }
+        if (request.getTagIds() != null) {
+            tagBitmapIndex.replaceContactTags(organizationId, contactId, request.getTagIds());
+        }
+        segmentService.refreshMembership(organizationId, List.of(contactId));
+        contactSearchCache.invalidate(organizationId);
+
         // FIX: .limit(5) applied once here only
         List<ContactNote> notes = noteRepository.findByContactIdOrderByCreatedAtDesc(contactId)
                 .stream()
@@ -329,6 +393,12 @@ public class ContactService {
         tagAssignmentRepository.deleteByContactId(contactId);
         noteRepository.deleteByContactId(contactId);             // FIX: was loadAll() + deleteAll()
         projectContactRepository.deleteByContactId(contactId);   // FIX: was missing entirely
+        contactStatsService.delete(contactId);
+        contactSearchIndexService.remove(contactId);
+        segmentService.removeContact(contactId);
+        tagBitmapIndex.removeContact(organizationId, contactId);
+        phoneContactCache.remove(organizationId, contact.getWaPhoneE164(), contactId);
+        contactSearchCache.invalidate(organizationId);
 
         contactRepository.delete(contact);
         log.info("Contact deleted: {}", contactId);
@@ -390,7 +460,7 @@ public class ContactService {
             ContactAttributeValue attributeValue = new ContactAttributeValue();
             attributeValue.setContactId(contactId);
             attributeValue.setAttributeDefinitionId(definition.getId());
-            attributeValue.setValueText(value);
+            AttributeValueUtil.assign(attributeValue, definition, value);
             attributeValue.setUpdatedSource(ContactAttributeValue.UpdatedSource.user);
             savedAttributes.add(attributeValueRepository.save(attributeValue));
         }
@@ -429,32 +499,24 @@ public class ContactService {
         return assignments;
     }
 
-    private Specification<Contact> buildSpecification(ContactSearchRequest request, Long organizationId) {
-        Specification<Contact> spec = Specification.where(
-                ContactSpecifications.belongsToOrganization(organizationId));
-
-        if (request.getSearch() != null && !request.getSearch().trim().isEmpty())
-            spec = spec.and(ContactSpecifications.searchByNameOrPhone(request.getSearch()));
-
-        if (request.getPhone() != null && !request.getPhone().trim().isEmpty())
-            spec = spec.and(ContactSpecifications.hasPhoneLike(request.getPhone()));
-
-        if (request.getSource() != null && !request.getSource().trim().isEmpty())
-            spec = spec.and(ContactSpecifications.hasSource(request.getSource()));
-
-        if (request.getTagIds() != null && !request.getTagIds().isEmpty())
-            spec = spec.and(ContactSpecifications.hasTags(request.getTagIds()));
-
-        if (request.getCreatedAfter() != null || request.getCreatedBefore() != null)
-            spec = spec.and(ContactSpecifications.createdBetween(request.getCreatedAfter(), request.getCreatedBefore()));
-
-        if (request.getLastSeenAfter() != null || request.getLastSeenBefore() != null)
-            spec = spec.and(ContactSpecifications.lastSeenBetween(request.getLastSeenAfter(), request.getLastSeenBefore()));
+    private <T> CompletableFuture<T> supplyReadOnly(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction().execute(status -> query.get()), queryExecutor);
+    }
 
-        if (request.getAttributeKey() != null && !request.getAttributeKey().trim().isEmpty())
-            spec = spec.and(ContactSpecifications.hasAttribute(request.getAttributeKey(), request.getAttributeValue()));
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
 
-        return spec;
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
     }
 
     private String capitalize(String str) {
@@ -0,0 +1,157 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
+import com.aigreentick.services.contacts.entity.Contact;
+import com.aigreentick.services.contacts.specification.ContactSpecifications;
+import com.aigreentick.services.contacts.util.SearchTokenUtil;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the contact search Specification from a ContactSearchRequest.
+ * Shared by the list/search endpoints and saved segments so both evaluate filters identically.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContactSpecificationBuilder {
+
+    // Largest bitmap result inlined as an id list; larger results use the SQL subqueries
+    private static final long MAX_INLINE_TAG_MATCHES = 5_000;
+
+    private final AttributeDefinitionResolver attributeDefinitionResolver;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final ContactSearchIndexService searchIndexService;
+
+    /**
+     * Translate a search request into a Specification scoped to the organization.
+     */
+    public Specification<Contact> build(ContactSearchRequest request, Long organizationId) {
+        return build(request, organizationId, true);
+    }
+
+    /**
+     * Same filters, but tag filters always compile to SQL subqueries. For callers that must see
+     * a write as soon as it has committed (segment maintenance): the tag index applies changes
+     * in after-commit callbacks, with no ordering against the caller's, while the subqueries
+     * read the database.
+     */
+    public Specification<Contact> buildWithoutTagIndex(ContactSearchRequest request, Long organizationId) {
+        return build(request, organizationId, false);
+    }
+
+    private Specification<Contact> build(ContactSearchRequest request, Long organizationId, boolean useTagIndex) {
+        Specification<Contact> spec = Specification.where(
+                ContactSpecifications.belongsToOrganization(organizationId));
+
+        if (request.getSearch() != null && !request.getSearch().trim().isEmpty()) {
+            // Trigram index narrows the candidates; the LIKE is kept as the exact residual filter.
+            // Terms shorter than three characters have no trigrams and fall back to the LIKE alone,
+            // as does every term until the index backfill has covered all contacts.
+            if (searchIndexService.isTokenBackfillComplete()) {
+                spec = spec.and(ContactSpecifications.hasSearchTokens(
+                        organizationId, SearchTokenUtil.trigrams(request.getSearch())));
+            }
+            spec = spec.and(ContactSpecifications.searchByNameOrPhone(request.getSearch()));
+        }
+
+        if (request.getPhone() != null && !request.getPhone().trim().isEmpty())
+            spec = spec.and(searchIndexService.isReversedPhoneBackfillComplete()
+                    ? ContactSpecifications.hasPhoneSuffix(request.getPhone())
+                    : ContactSpecifications.hasPhoneEndingWith(request.getPhone()));
+
+        if (request.getSource() != null && !request.getSource().trim().isEmpty())
+            spec = spec.and(ContactSpecifications.hasSource(request.getSource()));
+
+        spec = spec.and(useTagIndex
+                ? tagFilter(request, organizationId)
+                : tagSubqueries(request));
+
+        if (request.getCreatedAfter() != null || request.getCreatedBefore() != null)
+            spec = spec.and(ContactSpecifications.createdBetween(request.getCreatedAfter(), request.getCreatedBefore()));
+
+        if (request.getLastSeenAfter() != null || request.getLastSeenBefore() != null)
+            spec = spec.and(ContactSpecifications.lastSeenBetween(request.getLastSeenAfter(), request.getLastSeenBefore()));
+
+        if (request.getAttributeKey() != null && !request.getAttributeKey().trim().isEmpty()) {
+            // Resolve (org, key) → definition id before building the query
+            spec = spec.and(attributeDefinitionResolver.resolve(organizationId, request.getAttributeKey().trim())
+                    .map(def -> ContactSpecifications.hasAttribute(
+                            def.getId(), request.getAttributeValue(), request.getAttributeMatch()))
+                    .orElseGet(ContactSpecifications::none));
+        }
+
+        if (request.getFilter() != null) {
+            // Resolve every key in the tree to its definition up front, so each leaf
+            // compiles to a predicate on a single attribute_definition_id.
+            Set<String> keys = ContactSpecifications.filterKeys(request.getFilter());
+            Map<String, AttributeDefinition> definitions = keys.isEmpty()
+                    ? Map.of()
+                    : attributeDefinitionResolver.resolveAll(organizationId, keys);
+            spec = spec.and(ContactSpecifications.matchesFilter(request.getFilter(), definitions));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Any-of / all-of / none-of tag filters, evaluated against the in-memory TagBitmapIndex.
+     * The combined result is pushed to SQL as an id list when it is small enough, otherwise the
+     * equivalent EXISTS subqueries are used so a huge IN list never reaches the database.
+     */
+    private Specification<Contact> tagFilter(ContactSearchRequest request, Long organizationId) {
+        List<Long> anyOf = nonEmpty(request.getTagIds());
+        List<Long> allOf = nonEmpty(request.getAllTagIds());
+        List<Long> noneOf = nonEmpty(request.getExcludedTagIds());
+        if (anyOf == null && allOf == null && noneOf == null) return Specification.unrestricted();
+
+        Roaring64Bitmap excluded = noneOf != null ? tagBitmapIndex.anyOf(organizationId, noneOf) : null;
+
+        if (anyOf == null && allOf == null) {
+            if (excluded.getLongCardinality() <= MAX_INLINE_TAG_MATCHES) {
+                return excluded.isEmpty()
+                        ? Specification.unrestricted()
+                        : Specification.not(ContactSpecifications.hasIdIn(toIds(excluded)));
+            }
+            return ContactSpecifications.hasNoneOfTags(noneOf);
+        }
+
+        Roaring64Bitmap included = anyOf != null ? tagBitmapIndex.anyOf(organizationId, anyOf) : null;
+        if (allOf != null) {
+            Roaring64Bitmap all = tagBitmapIndex.allOf(organizationId, allOf);
+            included = included != null ? Roaring64Bitmap.and(included, all) : all;
+        }
+        if (excluded != null) included.andNot(excluded);
+
+        if (included.getLongCardinality() <= MAX_INLINE_TAG_MATCHES) {
+            return included.isEmpty()
+                    ? ContactSpecifications.none()
+                    : ContactSpecifications.hasIdIn(toIds(included));
+        }
+
+        return tagSubqueries(request);
+    }
+
+    private Specification<Contact> tagSubqueries(ContactSearchRequest request) {
+        return Specification.allOf(
+                ContactSpecifications.hasTags(request.getTagIds()),
+                ContactSpecifications.hasAllTags(request.getAllTagIds()),
+                ContactSpecifications.hasNoneOfTags(request.getExcludedTagIds()));
+    }
+
+    private static List<Long> nonEmpty(List<Long> ids) {
+        return ids == null || ids.isEmpty() ? null : ids;
+    }
+
+    private static List<Long> toIds(Roaring64Bitmap bitmap) {
+        return Arrays.stream(bitmap.toArray()).boxed().collect(Collectors.toList());
+    }
+}
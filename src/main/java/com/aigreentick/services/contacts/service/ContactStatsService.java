@@ -0,0 +1,171 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.entity.ContactStats;
+import com.aigreentick.services.contacts.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Maintains the contact_stats aggregate (note / tag / project / attribute counts).
+ *
+ * All mutators join the caller's transaction, so counters commit or roll back together
+ * with the rows they describe. Contacts created before contact_stats existed have no row;
+ * the first write touching such a contact rebuilds its row from the source tables, and
+ * reads fall back to grouped COUNT queries for any ids still missing.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContactStatsService {
+
+    private final ContactStatsRepository statsRepository;
+    private final ContactNoteRepository noteRepository;
+    private final ContactTagAssignmentRepository tagAssignmentRepository;
+    private final ContactAttributeValueRepository attributeValueRepository;
+    private final ProjectContactRepository projectContactRepository;
+
+    /**
+     * Insert the stats row for a freshly created contact whose counts the caller already knows.
+     */
+    @Transactional
+    public void initialize(
+            Long contactId,
+            Long organizationId,
+            int attributeCount,
+            int tagCount,
+            int noteCount,
+            int projectCount
+    ) {
+        ContactStats stats = ContactStats.newFor(contactId, organizationId);
+        stats.setAttributeCount(attributeCount);
+        stats.setTagCount(tagCount);
+        stats.setNoteCount(noteCount);
+        stats.setProjectCount(projectCount);
+        statsRepository.save(stats);
+    }
+
+    /**
+     * Insert stats rows for freshly created contacts with no notes, tags or attributes
+     * yet (bulk auto-create), in one batched save.
+     */
+    @Transactional
+    public void initializeAll(Collection<Long> contactIds, Long organizationId, int projectCount) {
+        List<ContactStats> rows = new ArrayList<>(contactIds.size());
+        for (Long contactId : contactIds) {
+            ContactStats stats = ContactStats.newFor(contactId, organizationId);
+            stats.setProjectCount(projectCount);
+            rows.add(stats);
+        }
+        statsRepository.saveAll(rows);
+    }
+
+    /**
+     * Overwrite attribute and tag counts after a replace-style contact update.
+     */
+    @Transactional
+    public void replaceAttributeAndTagCounts(Long contactId, Long organizationId, int attributeCount, int tagCount) {
+        if (statsRepository.updateAttributeAndTagCounts(contactId, attributeCount, tagCount) == 0) {
+            rebuild(contactId, organizationId);
+        }
+    }
+
+    @Transactional
+    public void addAttributes(Long contactId, Long organizationId, int delta) {
+        if (delta == 0) return;
+        if (statsRepository.incrementAttributeCount(contactId, delta) == 0) {
+            rebuild(contactId, organizationId);
+        }
+    }
+
+    @Transactional
+    public void addProjects(Long contactId, Long organizationId, int delta) {
+        if (delta == 0) return;
+        if (statsRepository.incrementProjectCount(contactId, delta) == 0) {
+            rebuild(contactId, organizationId);
+        }
+    }
+
+    /**
+     * {@link #addProjects(Long, Long, int)} for several contacts: one UPDATE for those with
+     * a stats row, a rebuild for the (legacy) rest.
+     */
+    @Transactional
+    public void addProjects(Collection<Long> contactIds, Long organizationId, int delta) {
+        if (delta == 0 || contactIds.isEmpty()) return;
+        List<Long> withRow = statsRepository.findContactIdsIn(contactIds);
+        if (!withRow.isEmpty()) {
+            statsRepository.incrementProjectCounts(withRow, delta);
+        }
+        if (withRow.size() < contactIds.size()) {
+            Set<Long> missing = new HashSet<>(contactIds);
+            withRow.forEach(missing::remove);
+            missing.forEach(contactId -> rebuild(contactId, organizationId));
+        }
+    }
+
+    @Transactional
+    public void delete(Long contactId) {
+        statsRepository.deleteByContactId(contactId);
+    }
+
+    /**
+     * Load counters for a page of contacts. One query when every contact has a stats row;
+     * otherwise the missing ids are counted with grouped queries (not persisted — this
+     * runs inside read-only transactions).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ContactStats> getStats(List<Long> contactIds, Long organizationId) {
+        Map<Long, ContactStats> result = new HashMap<>();
+        for (ContactStats stats : statsRepository.findByContactIdIn(contactIds)) {
+            result.put(stats.getContactId(), stats);
+        }
+
+        if (result.size() < contactIds.size()) {
+            List<Long> missing = contactIds.stream()
+                    .filter(id -> !result.containsKey(id))
+                    .toList();
+            log.debug("No contact_stats rows for {} contacts, counting from source tables", missing.size());
+            result.putAll(computeCounts(missing, organizationId));
+        }
+
+        return result;
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    /**
+     * Recompute a contact's counters from the source tables and insert its stats row.
+     * Used the first time a pre-existing contact (no stats row yet) is written to.
+     */
+    private void rebuild(Long contactId, Long organizationId) {
+        ContactStats stats = computeCounts(List.of(contactId), organizationId).get(contactId);
+        statsRepository.save(stats);
+        log.debug("Rebuilt contact_stats for contact {}", contactId);
+    }
+
+    private Map<Long, ContactStats> computeCounts(List<Long> contactIds, Long organizationId) {
+        Map<Long, ContactStats> result = new HashMap<>();
+        for (Long id : contactIds) {
+            result.put(id, ContactStats.newFor(id, organizationId));
+        }
+
+        for (Object[] row : noteRepository.countGroupedByContactIdIn(contactIds)) {
+            result.get((Long) row[0]).setNoteCount(((Long) row[1]).intValue());
+        }
+        for (Object[] row : tagAssignmentRepository.countGroupedByContactIdIn(contactIds)) {
+            result.get((Long) row[0]).setTagCount(((Long) row[1]).intValue());
+        }
+        for (Object[] row : attributeValueRepository.countGroupedByContactIdIn(contactIds)) {
+            result.get((Long) row[0]).setAttributeCount(((Long) row[1]).intValue());
+        }
+        for (Object[] row : projectContactRepository.countGroupedByContactIdIn(contactIds)) {
+            result.get((Long) row[0]).setProjectCount(((Long) row[1]).intValue());
+        }
+
+        return result;
+    }
+}
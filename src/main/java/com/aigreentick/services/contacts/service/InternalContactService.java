@@ -1,19 +1,21 @@
 package com.aigreentick.services.contacts.service;
 
+import com.aigreentick.services.contacts.dto.projection.AttributeValueRow;
+import com.aigreentick.services.contacts.dto.response.ColumnarAttributesResponse;
 import com.aigreentick.services.contacts.dto.response.ContactInfo;
 import com.aigreentick.services.contacts.entity.AttributeDefinition;
-import com.aigreentick.services.contacts.entity.Contact;
-import com.aigreentick.services.contacts.entity.ContactAttributeValue;
 import com.aigreentick.services.contacts.repository.AttributeDefinitionRepository;
 import com.aigreentick.services.contacts.repository.ContactAttributeValueRepository;
-import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.util.AttributeValueMatrix;
 import com.aigreentick.services.contacts.util.PhoneNumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,9 @@ import java.util.stream.Collectors;
  *  3. /attributes → lookup only (NO auto-create), unknown phones OMITTED,
  *                   missing attribute value → null (or omit — both fine per spec).
  *
+ *  4. Every lookup takes a projectId: null searches the whole organization (default),
+ *     otherwise only contacts linked to that project (project_contacts) are returned.
+ *
  * Both endpoints differ fundamentally from the public /api/v1/contacts/bulk-attributes
  * which auto-creates missing contacts. Do NOT delegate to ContactBulkAttributeService.
  */
@@ -38,9 +43,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class InternalContactService {
 
-    private final ContactRepository contactRepository;
+    // Contacts per value query / per streamed chunk
+    private static final int ATTRIBUTE_CHUNK_SIZE = 1000;
+
     private final ContactAttributeValueRepository attributeValueRepository;
     private final AttributeDefinitionRepository attributeDefinitionRepository;
+    private final ContactPhoneResolver contactPhoneResolver;
+    private final PlatformTransactionManager transactionManager;
+    private final InternalRequestCoalescer requestCoalescer;
+    private final InternalEndpointMetrics metrics;
 
     // ── 1. Resolve ────────────────────────────────────────────────────────────
 
@@ -52,26 +63,36 @@ public class InternalContactService {
      *   Output phones: "919876543210"  (no '+', same as input)
      *   Unknown phones → silently omitted from the result map.
      *   No contacts are created or modified.
+     *
+     * Concurrent identical requests share one lookup (see InternalRequestCoalescer);
+     * the returned map is shared and read-only.
      */
-    @Transactional(readOnly = true)
-    public Map<String, Long> resolveContacts(Long organizationId, List<String> rawPhones) {
-        log.info("Internal resolve — org: {}, phones: {}", organizationId, rawPhones.size());
+    public Map<String, Long> resolveContacts(Long organizationId, Long projectId, List<String> rawPhones) {
+        return metrics.timeRequest("resolve", organizationId, rawPhones.size(), () ->
+                requestCoalescer.coalesce("resolve", organizationId, projectId, rawPhones, null,
+                        () -> Collections.unmodifiableMap(loadResolvedContacts(organizationId, projectId, rawPhones))));
+    }
 
-        // Preserve original input string as the map key so the caller gets back
-        // exactly the format they sent (no '+').
-        Map<String, Long> result = new LinkedHashMap<>();
+    private Map<String, Long> loadResolvedContacts(Long organizationId, Long projectId, List<String> rawPhones) {
+        log.info("Internal resolve — org: {}, project scope: {}, phones: {}",
+                organizationId, projectId, rawPhones.size());
 
-        for (String raw : rawPhones) {
-            String e164 = toE164(raw);
-            if (e164 == null) {
-                log.debug("Cannot normalise '{}', omitting", raw);
-                continue;
-            }
+        // Normalise everything up front, then resolve in chunked IN queries.
+        // Result keys are the no-'+' form the caller sent, in input order.
+        List<String> e164Phones = metrics.timeStage("resolve", "normalize", () -> normalisePhones(rawPhones));
+        Map<String, Long> resolved = metrics.timeStage("resolve", "resolve", () ->
+                resolveIds(organizationId, projectId, e164Phones));
 
-            contactRepository
-                    .findByOrganizationIdAndWaPhoneE164(organizationId, e164)
-                    .ifPresent(contact -> result.put(stripPlus(e164), contact.getId()));
-        }
+        Map<String, Long> result = metrics.timeStage("resolve", "build", () -> {
+            Map<String, Long> byPhone = new LinkedHashMap<>();
+            for (String e164 : e164Phones) {
+                Long contactId = resolved.get(e164);
+                if (contactId != null) {
+                    byPhone.put(stripPlus(e164), contactId);
+                }
+            }
+            return byPhone;
+        });
 
         log.info("Resolve complete — matched {}/{}", result.size(), rawPhones.size());
         return result;
@@ -86,100 +107,272 @@ public class InternalContactService {
      *   - Unknown phones → OMITTED from the response array.
      *   - Known phones with no stored value for an attribute key → value is null.
      *   - phoneNumber in the response has NO '+' prefix.
+     *
+     * Concurrent identical requests share one lookup; the returned list is shared and read-only.
      */
-    @Transactional(readOnly = true)
     public List<ContactInfo> getAttributes(
             Long organizationId,
+            Long projectId,
+            List<String> rawPhones,
+            List<String> attributeKeys
+    ) {
+        return metrics.timeRequest("attributes", organizationId, rawPhones.size(), () ->
+                requestCoalescer.coalesce("attributes", organizationId, projectId, rawPhones, attributeKeys, () -> {
+                    List<ContactInfo> result = new ArrayList<>();
+                    forEachChunk("attributes", organizationId, projectId, rawPhones, attributeKeys, chunk ->
+                            result.addAll(metrics.timeStage("attributes", "build",
+                                    () -> toContactInfos(chunk, attributeKeys))));
+                    return Collections.unmodifiableList(result);
+                }));
+    }
+
+    /**
+     * Same lookup as {@link #getAttributes}, handing the contacts to sink in input order,
+     * one chunk of up to {@link #ATTRIBUTE_CHUNK_SIZE} contacts at a time, so only one
+     * chunk's values and ContactInfo objects are alive at once (NDJSON streaming).
+     *
+     * Every chunk loads in its own read-only transaction (joining the caller's, if any),
+     * so a long stream does not pin one connection between chunks. Not coalesced: each
+     * stream is consumed as it is produced.
+     */
+    public void streamAttributes(
+            Long organizationId,
+            Long projectId,
             List<String> rawPhones,
+            List<String> attributeKeys,
+            Consumer<List<ContactInfo>> sink
+    ) {
+        metrics.timeRequest("stream", organizationId, rawPhones.size(), () -> {
+            forEachChunk("stream", organizationId, projectId, rawPhones, attributeKeys, chunk ->
+                    sink.accept(metrics.timeStage("stream", "build", () -> toContactInfos(chunk, attributeKeys))));
+            return null;
+        });
+    }
+
+    /**
+     * Same lookup as {@link #getAttributes} in the columnar shape: keys once, then parallel
+     * contactIds / phoneNumbers / values arrays, values positional in key order. With
+     * dictionary encoding every distinct value is sent once in dictionary and values hold
+     * its index (nulls stay null). Coalesced like {@link #getAttributes}.
+     */
+    public ColumnarAttributesResponse getColumnarAttributes(
+            Long organizationId,
+            Long projectId,
+            List<String> rawPhones,
+            List<String> attributeKeys,
+            boolean dictionaryEncoded
+    ) {
+        return metrics.timeRequest("columnar", organizationId, rawPhones.size(), () ->
+                requestCoalescer.coalesce(dictionaryEncoded ? "columnar-dictionary" : "columnar",
+                        organizationId, projectId, rawPhones, attributeKeys,
+                        () -> loadColumnarAttributes("columnar", organizationId, projectId, rawPhones, attributeKeys,
+                                dictionaryEncoded)));
+    }
+
+    /**
+     * Columnar lookup of one AttributeJobService chunk (already normalised phones, no
+     * dictionary). Not timed as a request and not coalesced, so job traffic neither skews
+     * the columnar endpoint's latency nor shares results with it; its stages are recorded
+     * under endpoint "job".
+     */
+    public ColumnarAttributesResponse loadJobChunk(
+            Long organizationId,
+            Long projectId,
+            List<String> e164Phones,
             List<String> attributeKeys
     ) {
-        log.info("Internal attributes — org: {}, phones: {}, keys: {}",
-                organizationId, rawPhones.size(), attributeKeys.size());
+        return loadColumnarAttributes("job", organizationId, projectId, e164Phones, attributeKeys, false);
+    }
+
+    private ColumnarAttributesResponse loadColumnarAttributes(
+            String endpoint,
+            Long organizationId,
+            Long projectId,
+            List<String> rawPhones,
+            List<String> attributeKeys,
+            boolean dictionaryEncoded
+    ) {
+        List<Long> contactIds = new ArrayList<>();
+        List<String> phoneNumbers = new ArrayList<>();
+        List<Object[]> values = new ArrayList<>();
+        Map<String, Integer> dictionaryIndex = dictionaryEncoded ? new HashMap<>() : null;
+
+        forEachChunk(endpoint, organizationId, projectId, rawPhones, attributeKeys, chunk ->
+                metrics.timeStage(endpoint, "build", () -> {
+                    AttributeValueMatrix matrix = chunk.values();
+                    for (int row = 0; row < matrix.rowCount(); row++) {
+                        contactIds.add(matrix.rowId(row));
+                        phoneNumbers.add(stripPlus(chunk.e164Phones().get(row)));
+                        Object[] rowValues = new Object[matrix.columnCount()];
+                        for (int i = 0; i < rowValues.length; i++) {
+                            String value = matrix.get(row, i);
+                            rowValues[i] = dictionaryIndex == null || value == null
+                                    ? value
+                                    : dictionaryIndex.computeIfAbsent(value, v -> dictionaryIndex.size());
+                        }
+                        values.add(rowValues);
+                    }
+                    return null;
+                }));
+
+        List<String> dictionary = null;
+        if (dictionaryIndex != null) {
+            String[] byIndex = new String[dictionaryIndex.size()];
+            dictionaryIndex.forEach((value, index) -> byIndex[index] = value);
+            dictionary = Arrays.asList(byIndex);
+        }
+
+        return ColumnarAttributesResponse.builder()
+                .keys(attributeKeys)
+                .dictionary(dictionary)
+                .contactIds(contactIds)
+                .phoneNumbers(phoneNumbers)
+                .values(values)
+                .build();
+    }
+
+    private void forEachChunk(
+            String endpoint,
+            Long organizationId,
+            Long projectId,
+            List<String> rawPhones,
+            List<String> attributeKeys,
+            Consumer<AttributeChunk> sink
+    ) {
+        log.info("Internal attributes — org: {}, project scope: {}, phones: {}, keys: {}",
+                organizationId, projectId, rawPhones.size(), attributeKeys.size());
 
         // ── Step 1: Normalize + look up only existing contacts ─────────────
-        // Build ordered map: normalised E.164 → Contact (only known ones)
-        Map<String, Contact> e164ToContact = new LinkedHashMap<>();
-        for (String raw : rawPhones) {
-            String e164 = toE164(raw);
-            if (e164 == null) {
-                log.debug("Cannot normalise '{}', omitting", raw);
-                continue;
+        // Build ordered map: normalised E.164 → contact id (only known ones)
+        List<String> e164Phones = metrics.timeStage(endpoint, "normalize", () -> normalisePhones(rawPhones));
+        Map<String, Long> resolved = metrics.timeStage(endpoint, "resolve", () ->
+                resolveIds(organizationId, projectId, e164Phones));
+
+        Map<String, Long> e164ToContactId = new LinkedHashMap<>();
+        for (String e164 : e164Phones) {
+            Long contactId = resolved.get(e164);
+            if (contactId != null) {
+                e164ToContactId.put(e164, contactId);
             }
-            contactRepository
-                    .findByOrganizationIdAndWaPhoneE164(organizationId, e164)
-                    .ifPresent(c -> e164ToContact.put(e164, c));
         }
 
-        if (e164ToContact.isEmpty()) {
-            return Collections.emptyList();
+        if (e164ToContactId.isEmpty()) {
+            log.info("Internal attributes complete — returned 0/{} contacts", rawPhones.size());
+            return;
         }
 
         // ── Step 2: Batch-load attribute definitions for requested keys ────
-        List<AttributeDefinition> defs =
-                attributeDefinitionRepository.findByOrganizationIdAndAttrKeyIn(
-                        organizationId, attributeKeys);
+        List<AttributeDefinition> defs = metrics.timeStage(endpoint, "definitions", () ->
+                readOnlyTransaction().execute(status ->
+                        attributeDefinitionRepository.findByOrganizationIdAndAttrKeyIn(organizationId, attributeKeys)));
 
         // key → definition  (only keys that actually exist in the org)
         Map<String, AttributeDefinition> keyToDef = defs.stream()
                 .collect(Collectors.toMap(AttributeDefinition::getAttrKey, d -> d));
 
-        // ── Step 3: Batch-load all attribute values for known contacts ─────
-        List<Long> contactIds = e164ToContact.values().stream()
-                .map(Contact::getId)
-                .collect(Collectors.toList());
+        // ── Steps 3 + 4, per chunk: load values, build and hand over ───────
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(e164ToContactId.entrySet());
+        for (int from = 0; from < entries.size(); from += ATTRIBUTE_CHUNK_SIZE) {
+            List<Map.Entry<String, Long>> chunk =
+                    entries.subList(from, Math.min(from + ATTRIBUTE_CHUNK_SIZE, entries.size()));
+            sink.accept(loadChunk(endpoint, chunk, attributeKeys, keyToDef));
+        }
 
-        List<ContactAttributeValue> allValues =
-                attributeValueRepository.findByContactIdIn(contactIds);
+        log.info("Internal attributes complete — returned {}/{} contacts",
+                entries.size(), rawPhones.size());
+    }
 
-        // contactId → (attributeDefinitionId → value)
-        Map<Long, Map<Long, ContactAttributeValue>> valueIndex = new HashMap<>();
-        for (ContactAttributeValue v : allValues) {
-            valueIndex
-                    .computeIfAbsent(v.getContactId(), k -> new HashMap<>())
-                    .put(v.getAttributeDefinitionId(), v);
+    // ── Phone normalisation ───────────────────────────────────────────────────
+
+    /**
+     * Normalise every input phone, dropping (and logging) the ones that cannot be parsed
+     * and collapsing duplicates, in input order. Also used by AttributeJobService to split
+     * large lists into chunks without duplicates across chunks.
+     */
+    public List<String> normalisePhones(List<String> rawPhones) {
+        LinkedHashSet<String> e164Phones = new LinkedHashSet<>();
+        for (String raw : rawPhones) {
+            String e164 = toE164(raw);
+            if (e164 == null) {
+                log.debug("Cannot normalise '{}', omitting", raw);
+                continue;
+            }
+            e164Phones.add(e164);
         }
+        return new ArrayList<>(e164Phones);
+    }
 
-        // ── Step 4: Build response ─────────────────────────────────────────
-        List<ContactInfo> result = new ArrayList<>();
+    // ── Private helpers ───────────────────────────────────────────────────────
 
-        for (Map.Entry<String, Contact> entry : e164ToContact.entrySet()) {
-            String e164 = entry.getKey();
-            Contact contact = entry.getValue();
-            Map<Long, ContactAttributeValue> contactValues =
-                    valueIndex.getOrDefault(contact.getId(), Collections.emptyMap());
+    private Map<String, Long> resolveIds(Long organizationId, Long projectId, List<String> e164Phones) {
+        return readOnlyTransaction().execute(status -> projectId == null
+                ? contactPhoneResolver.resolveIds(organizationId, e164Phones)
+                : contactPhoneResolver.resolveIdsInProject(organizationId, projectId, e164Phones));
+    }
+
+    /**
+     * Values of one chunk of contacts, positional in attributeKeys order.
+     */
+    private AttributeChunk loadChunk(
+            String endpoint,
+            List<Map.Entry<String, Long>> chunk,
+            List<String> attributeKeys,
+            Map<String, AttributeDefinition> keyToDef
+    ) {
+        List<String> e164Phones = new ArrayList<>(chunk.size());
+        long[] rowIds = new long[chunk.size()];
+        for (int i = 0; i < rowIds.length; i++) {
+            e164Phones.add(chunk.get(i).getKey());
+            rowIds[i] = chunk.get(i).getValue();
+        }
 
-            List<ContactInfo.Attribute> attributes = new ArrayList<>();
+        // Column → definition id; keys missing from the org stay null (per spec "missing → null or omit")
+        long[] columnIds = new long[attributeKeys.size()];
+        Set<Long> definitionIds = new HashSet<>();
+        for (int i = 0; i < columnIds.length; i++) {
+            AttributeDefinition def = keyToDef.get(attributeKeys.get(i));
+            columnIds[i] = def != null ? def.getId() : AttributeValueMatrix.NO_COLUMN;
+            if (def != null) definitionIds.add(def.getId());
+        }
 
-            for (String key : attributeKeys) {
-                AttributeDefinition def = keyToDef.get(key);
+        // Only the requested keys' rows; none of the keys exist in the org → nothing to query
+        List<Long> contactIds = chunk.stream().map(Map.Entry::getValue).distinct().toList();
+        List<AttributeValueRow> allValues = definitionIds.isEmpty()
+                ? List.of()
+                : metrics.timeStage(endpoint, "values", () -> readOnlyTransaction().execute(status ->
+                        attributeValueRepository.findValueRows(contactIds, definitionIds)));
 
-                String value = null; // default: null (per spec "missing → null or omit, both fine")
-                if (def != null) {
-                    ContactAttributeValue attrValue = contactValues.get(def.getId());
-                    if (attrValue != null) {
-                        value = extractValue(attrValue); // null if all fields empty
-                    }
-                }
+        AttributeValueMatrix values = new AttributeValueMatrix(rowIds, columnIds);
+        for (AttributeValueRow v : allValues) {
+            values.put(v.contactId(), v.attributeDefinitionId(), v.value()); // null if all fields empty
+        }
+        return new AttributeChunk(e164Phones, values);
+    }
 
-                attributes.add(ContactInfo.Attribute.builder()
-                        .key(key)
-                        .value(value)   // null when not stored
-                        .build());
+    private List<ContactInfo> toContactInfos(AttributeChunk chunk, List<String> attributeKeys) {
+        AttributeValueMatrix matrix = chunk.values();
+        List<ContactInfo> result = new ArrayList<>(matrix.rowCount());
+        for (int row = 0; row < matrix.rowCount(); row++) {
+            List<ContactInfo.Attribute> attributes = new ArrayList<>(attributeKeys.size());
+            for (int i = 0; i < attributeKeys.size(); i++) {
+                // null when not stored
+                attributes.add(new ContactInfo.Attribute(attributeKeys.get(i), matrix.get(row, i)));
             }
 
             result.add(ContactInfo.builder()
-                    .contactId(contact.getId())
-                    .phoneNumber(stripPlus(e164))   // no '+' in response
+                    .contactId(matrix.rowId(row))
+                    .phoneNumber(stripPlus(chunk.e164Phones().get(row)))   // no '+' in response
                     .attributes(attributes)
                     .build());
         }
-
-        log.info("Internal attributes complete — returned {}/{} contacts",
-                result.size(), rawPhones.size());
         return result;
     }
 
-    // ── Private helpers ───────────────────────────────────────────────────────
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
 
     /**
      * Normalise a raw phone string to E.164.
@@ -208,25 +401,8 @@ public class InternalContactService {
     }
 
     /**
-     * Extract the stored value from a ContactAttributeValue.
-     * Returns null (not a fallback string) when every field is empty —
-     * matching the spec: "missing attribute value → null or omit, both fine".
+     * One chunk of the response: row i of values belongs to e164Phones[i].
      */
-    private String extractValue(ContactAttributeValue attr) {
-        if (attr.getValueText() != null && !attr.getValueText().isEmpty())
-            return attr.getValueText();
-        if (attr.getValueNumber() != null)
-            return attr.getValueNumber().toString();
-        if (attr.getValueDecimal() != null)
-            return attr.getValueDecimal().toPlainString();
-        if (attr.getValueBool() != null)
-            return attr.getValueBool().toString();
-        if (attr.getValueDate() != null)
-            return attr.getValueDate().toString();
-        if (attr.getValueDatetime() != null)
-            return attr.getValueDatetime().toString();
-        if (attr.getValueJson() != null && !attr.getValueJson().isEmpty())
-            return attr.getValueJson();
-        return null; // ← null, not the key name (that was the public-API fallback behaviour)
-    }
-}
\ No newline at end of file
+    private record AttributeChunk(List<String> e164Phones, AttributeValueMatrix values) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency metrics for the internal Messaging Service endpoints (p99 < 2 s contract).
+ *
+ *  contacts.internal.request  — whole call, tags: endpoint, org_size, input_size
+ *  contacts.internal.stage    — one stage of a call, tags: endpoint, stage
+ *                               (normalize, resolve, definitions, values, build)
+ *
+ * Both publish percentile histograms (for Prometheus-side quantiles) plus local
+ * p50 / p95 / p99, and count requests against the {@link #SLO} boundary. The chunked
+ * stages (values, build) are recorded once per chunk. {@link #sloReport()} summarises
+ * SLO burn per endpoint and stage over the last 5 minutes and hour (from per-minute
+ * samples of the cumulative counts) and since startup; it is served at
+ * /actuator/internalslo.
+ *
+ * The org_size tag comes from a cached contact count that is computed in the background;
+ * an organization's first calls are tagged "unknown" until it is ready.
+ */
+@Slf4j
+@Component
+public class InternalEndpointMetrics {
+
+    public static final Duration SLO = Duration.ofSeconds(2);
+    // p99 target → 1% of requests may exceed the SLO; burn rate 1.0 spends exactly that
+    private static final double ERROR_BUDGET = 0.01;
+    private static final long ORG_SIZE_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final int MAX_CACHED_ORG_SIZES = 10_000;
+    private static final String UNKNOWN_ORG_SIZE = "unknown";
+    // One sample per minute: enough for the 1 h window
+    private static final int MAX_SLO_SAMPLES = 61;
+
+    private final MeterRegistry meterRegistry;
+    private final ContactRepository contactRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService queryExecutor;
+
+    // Least recently used organization evicted first
+    private final Map<Long, OrgSize> orgSizes = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, OrgSize> eldest) {
+                    return size() > MAX_CACHED_ORG_SIZES;
+                }
+            });
+    private final Set<Long> orgSizesLoading = ConcurrentHashMap.newKeySet();
+
+    // Per timer, oldest first: cumulative counts taken by sampleSloCounts()
+    private final Map<Meter.Id, Deque<SloSample>> sloSamples = new ConcurrentHashMap<>();
+
+    public InternalEndpointMetrics(
+            MeterRegistry meterRegistry,
+            ContactRepository contactRepository,
+            PlatformTransactionManager transactionManager,
+            ExecutorService queryExecutor
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.contactRepository = contactRepository;
+        this.queryExecutor = queryExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Time a whole internal call.
+     */
+    public <T> T timeRequest(String endpoint, Long organizationId, int inputSize, Supplier<T> call) {
+        Timer timer = Timer.builder("contacts.internal.request")
+                .description("Internal endpoint latency")
+                .tag("endpoint", endpoint)
+                .tag("org_size", orgSizeBucket(organizationId))
+                .tag("input_size", inputSizeBucket(inputSize))
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(SLO)
+                .register(meterRegistry);
+        return timer.record(call);
+    }
+
+    /**
+     * Time one stage of an internal call.
+     */
+    public <T> T timeStage(String endpoint, String stage, Supplier<T> work) {
+        return stageTimer(endpoint, stage).record(work);
+    }
+
+    /**
+     * Per endpoint and stage: count, mean, max, local percentiles, and burn rate (share
+     * over the SLO / error budget; above 1 the p99 target is being missed) over the last
+     * 5 minutes, the last hour and since startup. A window longer than the samples taken so
+     * far covers what there is.
+     */
+    public Map<String, Object> sloReport() {
+        Map<String, Object> requests = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("contacts.internal.request").timers()) {
+            String key = timer.getId().getTag("endpoint") + " org_size=" + timer.getId().getTag("org_size")
+                    + " input_size=" + timer.getId().getTag("input_size");
+            requests.put(key, summarize(timer));
+        }
+
+        Map<String, Object> stages = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("contacts.internal.stage").timers()) {
+            stages.put(timer.getId().getTag("endpoint") + "." + timer.getId().getTag("stage"), summarize(timer));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sloMillis", SLO.toMillis());
+        report.put("errorBudget", ERROR_BUDGET);
+        report.put("requests", requests);
+        report.put("stages", stages);
+        return report;
+    }
+
+    /**
+     * Record every timer's cumulative (count, within SLO), the basis of the windowed burn rates.
+     */
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void sampleSloCounts() {
+        long now = System.nanoTime();
+        for (Timer timer : internalTimers()) {
+            SloSample sample = SloSample.of(timer.takeSnapshot(), now);
+            Deque<SloSample> samples = sloSamples.computeIfAbsent(timer.getId(), id -> new ArrayDeque<>());
+            synchronized (samples) {
+                samples.addLast(sample);
+                while (samples.size() > MAX_SLO_SAMPLES) samples.removeFirst();
+            }
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private List<Timer> internalTimers() {
+        List<Timer> timers = new ArrayList<>(meterRegistry.find("contacts.internal.request").timers());
+        timers.addAll(meterRegistry.find("contacts.internal.stage").timers());
+        return timers;
+    }
+
+    private Timer stageTimer(String endpoint, String stage) {
+        return Timer.builder("contacts.internal.stage")
+                .description("Internal endpoint stage latency")
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(SLO)
+                .register(meterRegistry);
+    }
+
+    private Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        long count = snapshot.count();
+        SloSample current = SloSample.of(snapshot, System.nanoTime());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        summary.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100) + "Millis",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("burnRate5m", burnRate(current, sampleBefore(timer, current, Duration.ofMinutes(5))));
+        summary.put("burnRate1h", burnRate(current, sampleBefore(timer, current, Duration.ofHours(1))));
+        summary.put("burnRateSinceStart", burnRate(current, SloSample.EMPTY));
+        return summary;
+    }
+
+    /**
+     * Newest sample at least window older than current, else the oldest there is (else none).
+     */
+    private SloSample sampleBefore(Timer timer, SloSample current, Duration window) {
+        Deque<SloSample> samples = sloSamples.get(timer.getId());
+        if (samples == null) return SloSample.EMPTY;
+        synchronized (samples) {
+            SloSample base = samples.peekFirst();
+            for (SloSample sample : samples) {
+                if (current.nanos() - sample.nanos() < window.toNanos()) break;
+                base = sample;
+            }
+            return base != null ? base : SloSample.EMPTY;
+        }
+    }
+
+    private static double burnRate(SloSample current, SloSample base) {
+        double count = current.count() - base.count();
+        double overSlo = count - (current.withinSlo() - base.withinSlo());
+        return count > 0 ? overSlo / count / ERROR_BUDGET : 0;
+    }
+
+    /**
+     * Organization size bucket from a cached contact count (refreshed every 10 minutes),
+     * so tagging adds no query to any request: a missing or expired count is recomputed
+     * in the background, and the request gets the previous bucket or "unknown".
+     */
+    private String orgSizeBucket(Long organizationId) {
+        OrgSize cached = orgSizes.get(organizationId);
+        if (cached == null || cached.expiresAt() <= System.currentTimeMillis()) {
+            refreshOrgSize(organizationId);
+        }
+        return cached != null ? cached.bucket() : UNKNOWN_ORG_SIZE;
+    }
+
+    private void refreshOrgSize(Long organizationId) {
+        if (!orgSizesLoading.add(organizationId)) return;
+        queryExecutor.execute(() -> {
+            try {
+                long count = readOnlyTransaction.execute(status ->
+                        contactRepository.countByOrganizationId(organizationId));
+                String bucket = count < 1_000 ? "lt1k"
+                        : count < 10_000 ? "lt10k"
+                        : count < 100_000 ? "lt100k"
+                        : count < 1_000_000 ? "lt1m"
+                        : "gte1m";
+                orgSizes.put(organizationId, new OrgSize(bucket, System.currentTimeMillis() + ORG_SIZE_TTL_MILLIS));
+            } catch (RuntimeException e) {
+                log.debug("Org size count failed for org {}: {}", organizationId, e.getMessage());
+            } finally {
+                orgSizesLoading.remove(organizationId);
+            }
+        });
+    }
+
+    private static String inputSizeBucket(int inputSize) {
+        return inputSize < 100 ? "lt100"
+                : inputSize < 1_000 ? "lt1k"
+                : inputSize < 10_000 ? "lt10k"
+                : inputSize < 100_000 ? "lt100k"
+                : "gte100k";
+    }
+
+    private record OrgSize(String bucket, long expiresAt) {
+    }
+
+    /**
+     * Cumulative request count and requests within the SLO of a timer, at a point in time.
+     */
+    private record SloSample(long count, double withinSlo, long nanos) {
+
+        static final SloSample EMPTY = new SloSample(0, 0, Long.MIN_VALUE);
+
+        static SloSample of(HistogramSnapshot snapshot, long nanos) {
+            double withinSlo = 0;
+            for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                if (bucket.bucket(TimeUnit.MILLISECONDS) == SLO.toMillis()) withinSlo = bucket.count();
+            }
+            return new SloSample(snapshot.count(), withinSlo, nanos);
+        }
+    }
+}
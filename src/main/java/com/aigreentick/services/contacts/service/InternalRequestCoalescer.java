@@ -0,0 +1,61 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Shares one computation among concurrent identical internal requests (broadcast retries
+ * and fan-out send the same /resolve or /attributes body several times at once).
+ *
+ * Requests are identical when operation, organization, project scope, phone list and key
+ * list are equal (element by element, in order — the lists are hashed for lookup, never
+ * trusted by hash alone). With contacts.internal.coalescing-ttl > 0 a result is also reused for that long
+ * after it completes; the default 0 only joins requests that are in flight together.
+ * Shared results are returned to every caller, so they must be treated as read-only.
+ */
+@Slf4j
+@Component
+public class InternalRequestCoalescer {
+
+    private static final int MAX_RETAINED_RESULTS = 100;
+
+    private final SingleFlight<RequestKey, Object> flights;
+
+    public InternalRequestCoalescer(@Value("${contacts.internal.coalescing-ttl:0ms}") Duration ttl) {
+        this.flights = new SingleFlight<>(ttl.toMillis(), MAX_RETAINED_RESULTS);
+        log.info("Internal request coalescing enabled, result TTL: {} ms", ttl.toMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(
+            String operation,
+            Long organizationId,
+            Long projectId,
+            List<String> phones,
+            List<String> attributeKeys,
+            Supplier<T> work
+    ) {
+        // Copies: the key must not change if a caller mutates its request afterwards
+        RequestKey key = new RequestKey(operation, organizationId, projectId,
+                Collections.unmodifiableList(new ArrayList<>(phones)),
+                attributeKeys != null ? Collections.unmodifiableList(new ArrayList<>(attributeKeys)) : List.of());
+        return (T) flights.execute(key, work::get);
+    }
+
+    private record RequestKey(
+            String operation,
+            Long organizationId,
+            Long projectId,
+            List<String> phones,
+            List<String> attributeKeys
+    ) {
+    }
+}
@@ -0,0 +1,330 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.projection.ContactPhoneRow;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-organization Bloom filters over known wa_phone_e164 values, used by
+ * ContactPhoneResolver to drop definitely-unknown phones (PhoneContactCache misses)
+ * before querying the database.
+ *
+ * A filter is built in the background on an organization's first screening (that request
+ * goes to the database unscreened) and rebuilt every {@link #REBUILD_INTERVAL_MINUTES}
+ * minutes, which resizes it for growth and forgets deleted phones. New phones written on
+ * this instance are added as soon as they are written and again after commit: the first
+ * add closes the window between commit and after-commit callbacks, the second reaches a
+ * rebuild whose snapshot started before the commit. An add for a rolled-back insert only
+ * costs a false positive.
+ *
+ * Phones written elsewhere (other instances, INBOUND contacts) are picked up by a catch-up
+ * query on idx_org_updated_at, started in the background by a screening that finds the
+ * filter more than {@link #CATCH_UP_INTERVAL_MILLIS} ms behind. A filter is only used while
+ * its last catch-up started less than {@link #MAX_CATCH_UP_AGE_MILLIS} ms ago (otherwise the
+ * request goes to the database unscreened), so a phone written elsewhere can be screened
+ * out for at most that long. Each catch-up re-reads {@link #COMMIT_GRACE_MILLIS} before the
+ * previous one, covering transactions that commit after stamping updated_at and clock skew
+ * between writers.
+ *
+ * Metrics: contacts.phone.bloom.memory, .expected.fpp (worst current filter),
+ * .observed.fpp (false positives among phones that were not contacts), .dropped and
+ * .false.positives counters.
+ */
+@Slf4j
+@Component
+public class PhoneBloomFilters {
+
+    private static final int MAX_FILTERED_ORGANIZATIONS = 200;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    // Room to grow between rebuilds before the false-positive rate drifts above target
+    private static final double SIZING_HEADROOM = 1.5;
+    private static final long MIN_EXPECTED_ENTRIES = 10_000;
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+    private static final long REBUILD_INTERVAL_MINUTES = 30;
+    // Filters nobody screened with for this long are dropped instead of rebuilt
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.HOURS.toNanos(2);
+    private static final long CATCH_UP_INTERVAL_MILLIS = 1_000;
+    private static final long MAX_CATCH_UP_AGE_MILLIS = 2_000;
+    private static final long COMMIT_GRACE_MILLIS = 60_000;
+
+    private final ContactRepository contactRepository;
+    private final TransactionTemplate loadTransaction;
+    private final ExecutorService queryExecutor;
+
+    private final Map<Long, OrgFilter> filters = new ConcurrentHashMap<>();
+
+    private final Counter droppedPhones;
+    private final Counter falsePositives;
+
+    public PhoneBloomFilters(
+            ContactRepository contactRepository,
+            PlatformTransactionManager transactionManager,
+            ExecutorService queryExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        this.contactRepository = contactRepository;
+        this.queryExecutor = queryExecutor;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Not read-only: read-only transactions may be served by a lagging read replica
+        // (ReadReplicaDataSourceConfig), and the snapshot must hold every committed change
+
+        this.droppedPhones = Counter.builder("contacts.phone.bloom.dropped")
+                .description("Phones dropped as definitely unknown before the database lookup")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("contacts.phone.bloom.false.positives")
+                .description("Phones that passed the filter but matched no contact")
+                .register(meterRegistry);
+        Gauge.builder("contacts.phone.bloom.memory", this, PhoneBloomFilters::memoryBytes)
+                .description("Bytes held by phone Bloom filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("contacts.phone.bloom.expected.fpp", this, PhoneBloomFilters::worstExpectedFpp)
+                .description("Highest false-positive probability of any current filter, from its fill")
+                .register(meterRegistry);
+        Gauge.builder("contacts.phone.bloom.observed.fpp", this, PhoneBloomFilters::observedFpp)
+                .description("False positives / phones that were not contacts, since startup")
+                .register(meterRegistry);
+        Gauge.builder("contacts.phone.bloom.organizations", filters, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of screening: the phones that may be contacts, and whether a filter was
+     * applied at all (false while the organization's first filter is still being built, or
+     * while it is not caught up with writes made elsewhere).
+     */
+    public record Screening(List<String> candidates, boolean screened) {
+    }
+
+    public Screening screen(Long organizationId, Collection<String> e164Phones) {
+        OrgFilter filter = filters.computeIfAbsent(organizationId, id -> new OrgFilter());
+        filter.lastAccess = System.nanoTime();
+
+        BloomFilter current = filter.current;
+        if (current == null) {
+            scheduleBuild(organizationId, filter);
+            return new Screening(new ArrayList<>(e164Phones), false);
+        }
+        long behind = System.currentTimeMillis() - filter.caughtUpAt;
+        if (behind >= CATCH_UP_INTERVAL_MILLIS) scheduleCatchUp(organizationId, filter);
+        if (behind >= MAX_CATCH_UP_AGE_MILLIS) {
+            return new Screening(new ArrayList<>(e164Phones), false);
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (String e164 : e164Phones) {
+            if (current.mightContain(e164)) candidates.add(e164);
+        }
+        droppedPhones.increment(e164Phones.size() - candidates.size());
+        return new Screening(candidates, true);
+    }
+
+    /**
+     * Report screened phones the database did not find.
+     */
+    public void recordFalsePositives(int count) {
+        if (count > 0) falsePositives.increment(count);
+    }
+
+    // ── Maintenance (called by contact write paths) ───────────────────────────
+
+    public void add(Long organizationId, String e164Phone) {
+        apply(organizationId, e164Phone);
+        afterCommit(() -> apply(organizationId, e164Phone));
+    }
+
+    @Scheduled(fixedDelay = REBUILD_INTERVAL_MINUTES, initialDelay = REBUILD_INTERVAL_MINUTES,
+            timeUnit = TimeUnit.MINUTES)
+    public void rebuildAll() {
+        long idleBefore = System.nanoTime() - IDLE_EVICTION_NANOS;
+        for (Map.Entry<Long, OrgFilter> entry : filters.entrySet()) {
+            OrgFilter filter = entry.getValue();
+            if (filter.lastAccess < idleBefore) {
+                filters.remove(entry.getKey(), filter);
+            } else if (filter.current != null && filter.building.compareAndSet(false, true)) {
+                // Off the scheduler thread, which also runs the replica lag checks
+                queryExecutor.execute(() -> build(entry.getKey(), filter));
+            }
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private void scheduleBuild(Long organizationId, OrgFilter filter) {
+        if (filter.building.compareAndSet(false, true)) {
+            queryExecutor.execute(() -> build(organizationId, filter));
+        }
+    }
+
+    // On the executor: the caller's request may already hold a pooled connection
+    private void scheduleCatchUp(Long organizationId, OrgFilter filter) {
+        if (filter.catchingUp.compareAndSet(false, true)) {
+            queryExecutor.execute(() -> catchUp(organizationId, filter));
+        }
+    }
+
+    /**
+     * Add phones created or changed since the last catch-up. Caller holds filter.catchingUp.
+     * A failed catch-up leaves the filter behind; screening stops using it once it is
+     * MAX_CATCH_UP_AGE_MILLIS behind, and the next screening tries again.
+     */
+    private void catchUp(Long organizationId, OrgFilter filter) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            LocalDateTime since = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(filter.caughtUpAt - COMMIT_GRACE_MILLIS), ZoneId.systemDefault());
+            List<String> phones = loadTransaction.execute(status ->
+                    contactRepository.findPhonesUpdatedSince(organizationId, since));
+            synchronized (filter) {
+                for (String phone : phones) {
+                    if (phone == null) continue;
+                    filter.current.put(phone);
+                    if (filter.next != null) filter.next.put(phone);
+                }
+            }
+            filter.caughtUpAt = startedAt;
+        } catch (RuntimeException e) {
+            log.warn("Phone Bloom filter catch-up failed for org {}: {}", organizationId, e.getMessage());
+        } finally {
+            filter.catchingUp.set(false);
+        }
+    }
+
+    /**
+     * Caller holds filter.building.
+     */
+    private void build(Long organizationId, OrgFilter filter) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            long count = loadTransaction.execute(status -> contactRepository.countByOrganizationId(organizationId));
+            BloomFilter next = BloomFilter.forExpectedEntries(
+                    Math.max(MIN_EXPECTED_ENTRIES, (long) (count * SIZING_HEADROOM)), FALSE_POSITIVE_PROBABILITY);
+
+            // Registered before the snapshot is read, so after-commit adds of later commits reach it
+            synchronized (filter) {
+                filter.next = next;
+            }
+
+            long loaded = loadTransaction.execute(status -> {
+                long rows = 0;
+                long afterId = 0;
+                while (true) {
+                    List<ContactPhoneRow> page = contactRepository.findPhoneRowsAfter(
+                            organizationId, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                    for (ContactPhoneRow row : page) {
+                        if (row.waPhoneE164() != null) next.put(row.waPhoneE164());
+                    }
+                    rows += page.size();
+                    if (page.size() < REBUILD_PAGE_SIZE) return rows;
+                    afterId = page.get(page.size() - 1).id();
+                }
+            });
+
+            synchronized (filter) {
+                // A first build is caught up to its snapshot; a rebuild keeps the catch-up
+                // position, whose catch-ups also went into next
+                if (filter.current == null) filter.caughtUpAt = startedAt;
+                filter.current = next;
+                filter.next = null;
+            }
+            log.debug("Phone Bloom filter built for org {} — {} phones, {} KB", organizationId, loaded,
+                    next.sizeInBytes() / 1024);
+        } catch (RuntimeException e) {
+            synchronized (filter) {
+                filter.next = null;
+            }
+            log.warn("Phone Bloom filter build failed for org {}: {}", organizationId, e.getMessage());
+        } finally {
+            filter.building.set(false);
+        }
+        evictIfNeeded();
+    }
+
+    private void apply(Long organizationId, String e164Phone) {
+        OrgFilter filter = filters.get(organizationId);
+        if (filter == null || e164Phone == null) return;
+        // Under the filter's lock so a phone cannot fall between the old and the rebuilt filter
+        synchronized (filter) {
+            if (filter.current != null) filter.current.put(e164Phone);
+            if (filter.next != null) filter.next.put(e164Phone);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (filters.size() > MAX_FILTERED_ORGANIZATIONS) {
+            Optional<Map.Entry<Long, OrgFilter>> oldest = filters.entrySet().stream()
+                    .filter(e -> !e.getValue().building.get())
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            if (oldest.isEmpty()) return;
+            filters.remove(oldest.get().getKey(), oldest.get().getValue());
+        }
+    }
+
+    private double memoryBytes() {
+        long bytes = 0;
+        for (OrgFilter filter : filters.values()) {
+            BloomFilter current = filter.current;
+            BloomFilter next = filter.next;
+            if (current != null) bytes += current.sizeInBytes();
+            if (next != null) bytes += next.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private double worstExpectedFpp() {
+        double worst = 0;
+        for (OrgFilter filter : filters.values()) {
+            BloomFilter current = filter.current;
+            if (current != null) worst = Math.max(worst, current.expectedFalsePositiveProbability());
+        }
+        return worst;
+    }
+
+    private double observedFpp() {
+        double positives = falsePositives.count();
+        double negatives = positives + droppedPhones.count();
+        return negatives > 0 ? positives / negatives : 0;
+    }
+
+    private static class OrgFilter {
+        final AtomicBoolean building = new AtomicBoolean();
+        final AtomicBoolean catchingUp = new AtomicBoolean();
+        volatile long caughtUpAt;   // wall-clock start of the last catch-up (or first build)
+        volatile BloomFilter current;
+        volatile BloomFilter next;   // being rebuilt; receives adds alongside current
+        volatile long lastAccess = System.nanoTime();
+    }
+}
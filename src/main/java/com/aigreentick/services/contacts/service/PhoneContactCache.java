@@ -0,0 +1,279 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.projection.ContactPhoneRow;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.util.LongLongHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Per-organization phone → contact id cache for bulk phone resolution.
+ *
+ * An organization's complete phone list is loaded in the background after its first lookup
+ * into a primitive {@link LongLongHashMap} (E.164 digits as a long → contact id), so a cached
+ * organization answers its hits without a database round trip; until the snapshot is ready,
+ * every phone is returned as uncached. Contact create / phone change / delete on this
+ * instance report here and are applied after commit.
+ *
+ * Writes from other instances or from outside this service (e.g. INBOUND contacts created
+ * by the messaging pipeline) are not reported, so the cache is never trusted for a miss:
+ * phones it does not hold are returned as uncached and confirmed with the IN query. Stale
+ * hits (a phone deleted or moved elsewhere) are bounded by {@link #SNAPSHOT_TTL_MILLIS}: a
+ * lookup on a snapshot older than {@link #SNAPSHOT_REFRESH_MILLIS} starts a background reload,
+ * and a snapshot past the TTL is no longer served.
+ *
+ * Changes reported while a snapshot is loading are applied to the serving snapshot and also
+ * queued, then replayed on top of the new one before it is installed (putting a phone or
+ * removing it from its contact is idempotent, so replaying a change the snapshot already
+ * holds is harmless). Organizations above {@link #MAX_ORGANIZATION_ENTRIES} contacts are not
+ * cached, and the total across organizations is capped at {@link #MAX_TOTAL_ENTRIES},
+ * evicting the least recently used organization first.
+ */
+@Slf4j
+@Component
+public class PhoneContactCache {
+
+    private static final int MAX_ORGANIZATION_ENTRIES = 500_000;
+    private static final long MAX_TOTAL_ENTRIES = 2_000_000;
+    // How long an organization found too large is left alone before it is counted again
+    private static final long TOO_LARGE_RECHECK_MILLIS = 10 * 60 * 1000L;
+    // Age past which a snapshot is not served, bounding hits made stale by unreported writes
+    private static final long SNAPSHOT_TTL_MILLIS = 5 * 60 * 1000L;
+    // Age at which a reload starts, so the next snapshot is usually ready before the TTL
+    private static final long SNAPSHOT_REFRESH_MILLIS = 4 * 60 * 1000L;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final ContactRepository contactRepository;
+    private final TransactionTemplate loadTransaction;
+    private final ExecutorService queryExecutor;
+
+    private final Map<Long, OrgState> states = new ConcurrentHashMap<>();
+
+    public PhoneContactCache(
+            ContactRepository contactRepository,
+            PlatformTransactionManager transactionManager,
+            ExecutorService queryExecutor
+    ) {
+        this.contactRepository = contactRepository;
+        this.queryExecutor = queryExecutor;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Not read-only: read-only transactions may be served by a lagging read replica
+        // (ReadReplicaDataSourceConfig), and the snapshot must hold every committed change
+    }
+
+    /**
+     * Outcome of a cache lookup: phones found in the cache, and every other phone, which the
+     * caller must look up in the database (a miss may be a contact created elsewhere).
+     */
+    public record Lookup(Map<String, Long> resolved, List<String> uncached) {
+    }
+
+    public Lookup lookup(Long organizationId, Collection<String> e164Phones) {
+        OrgState state = states.computeIfAbsent(organizationId, id -> new OrgState());
+        LongLongHashMap phones = phonesFor(organizationId, state);
+        if (phones == null) {
+            return new Lookup(Map.of(), new ArrayList<>(e164Phones));
+        }
+
+        Map<String, Long> resolved = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        synchronized (state) {
+            for (String e164 : e164Phones) {
+                long key = encode(e164);
+                // key 0: not representable as digits, never cached
+                long contactId = key == 0L ? LongLongHashMap.NO_VALUE : phones.get(key);
+                if (contactId != LongLongHashMap.NO_VALUE) {
+                    resolved.put(e164, contactId);
+                } else {
+                    uncached.add(e164);
+                }
+            }
+        }
+        return new Lookup(resolved, uncached);
+    }
+
+    // ── Maintenance (called by contact write paths) ───────────────────────────
+
+    public void put(Long organizationId, String e164Phone, Long contactId) {
+        long key = encode(e164Phone);
+        if (key == 0L) return;   // never looked up in the cache, see lookup()
+        afterCommit(() -> apply(organizationId, phones -> phones.put(key, contactId)));
+    }
+
+    public void remove(Long organizationId, String e164Phone, Long contactId) {
+        long key = encode(e164Phone);
+        if (key == 0L) return;
+        afterCommit(() -> apply(organizationId, phones -> {
+            // Only if the phone still points at this contact (it may have been re-created since)
+            if (phones.get(key) == contactId) phones.remove(key);
+        }));
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private LongLongHashMap phonesFor(Long organizationId, OrgState state) {
+        long now = System.currentTimeMillis();
+        LongLongHashMap phones = state.phones;
+        long age = now - state.loadedAt;
+        if (state.tooLargeUntil <= now && (phones == null || age >= SNAPSHOT_REFRESH_MILLIS)) {
+            scheduleLoad(organizationId, state);
+        }
+        // An expired snapshot is not served, so callers never see hits older than the TTL
+        if (phones == null || age >= SNAPSHOT_TTL_MILLIS) return null;
+        state.lastAccess = System.nanoTime();
+        return phones;
+    }
+
+    // On the executor: the load is a full scan of the organization's phones
+    private void scheduleLoad(Long organizationId, OrgState state) {
+        if (state.loading.compareAndSet(false, true)) {
+            queryExecutor.execute(() -> load(organizationId, state));
+        }
+    }
+
+    /**
+     * Read a snapshot of the organization's phones, replay the changes reported meanwhile,
+     * and install it. Caller holds state.loading.
+     */
+    private void load(Long organizationId, OrgState state) {
+        long startedAt = System.currentTimeMillis();
+        // Registered before the snapshot is read, so changes committed meanwhile reach it
+        synchronized (state) {
+            state.pending = new ArrayList<>();
+        }
+        try {
+            LongLongHashMap loaded = loadTransaction.execute(status -> {
+                long count = contactRepository.countByOrganizationId(organizationId);
+                if (count > MAX_ORGANIZATION_ENTRIES) return null;
+
+                LongLongHashMap phones = new LongLongHashMap((int) count);
+                long afterId = 0;
+                while (true) {
+                    List<ContactPhoneRow> page = contactRepository.findPhoneRowsAfter(
+                            organizationId, afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                    for (ContactPhoneRow row : page) {
+                        long key = encode(row.waPhoneE164());
+                        // Oldest contact wins for a duplicated phone, as in ContactPhoneResolver
+                        if (key != 0L && phones.get(key) == LongLongHashMap.NO_VALUE) {
+                            phones.put(key, row.id());
+                        }
+                    }
+                    if (page.size() < LOAD_PAGE_SIZE) return phones;
+                    afterId = page.get(page.size() - 1).id();
+                }
+            });
+
+            if (loaded == null) {
+                synchronized (state) {
+                    state.phones = null;
+                    state.pending = null;
+                }
+                state.tooLargeUntil = System.currentTimeMillis() + TOO_LARGE_RECHECK_MILLIS;
+                log.debug("Org {} has more than {} contacts, phone cache disabled for it",
+                        organizationId, MAX_ORGANIZATION_ENTRIES);
+                return;
+            }
+
+            synchronized (state) {
+                for (Consumer<LongLongHashMap> change : state.pending) {
+                    change.accept(loaded);
+                }
+                state.pending = null;
+                state.phones = loaded;
+                state.loadedAt = startedAt;
+                state.lastAccess = System.nanoTime();
+            }
+            log.debug("Phone cache loaded for org {} — {} phones", organizationId, loaded.size());
+        } catch (RuntimeException e) {
+            synchronized (state) {
+                state.pending = null;
+            }
+            log.warn("Phone cache load failed for org {}: {}", organizationId, e.getMessage());
+        } finally {
+            state.loading.set(false);
+        }
+        evictIfNeeded();
+    }
+
+    private void apply(Long organizationId, Consumer<LongLongHashMap> change) {
+        OrgState state = states.get(organizationId);
+        if (state == null) return;
+        synchronized (state) {
+            if (state.phones != null) change.accept(state.phones);
+            if (state.pending != null) state.pending.add(change);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (true) {
+            long total = 0;
+            Map.Entry<Long, OrgState> oldest = null;
+            for (Map.Entry<Long, OrgState> entry : states.entrySet()) {
+                LongLongHashMap phones = entry.getValue().phones;
+                if (phones == null) continue;
+                total += phones.size();
+                if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (total <= MAX_TOTAL_ENTRIES || oldest == null) return;
+
+            synchronized (oldest.getValue()) {
+                oldest.getValue().phones = null;
+            }
+            log.debug("Evicted phone cache of org {}", oldest.getKey());
+        }
+    }
+
+    /**
+     * "+919876543210" → 919876543210L; 0 when the value is not a plain digit string that fits a long.
+     */
+    static long encode(String e164) {
+        if (e164 == null) return 0L;
+        int start = e164.startsWith("+") ? 1 : 0;
+        int length = e164.length() - start;
+        if (length < 1 || length > 18) return 0L;
+        long value = 0L;
+        for (int i = start; i < e164.length(); i++) {
+            char c = e164.charAt(i);
+            if (c < '0' || c > '9') return 0L;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static class OrgState {
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile LongLongHashMap phones;
+        volatile long lastAccess;
+        volatile long tooLargeUntil;
+        volatile long loadedAt;   // wall-clock start of the load that produced phones
+        List<Consumer<LongLongHashMap>> pending;   // guarded by this; changes reported while loading
+    }
+}
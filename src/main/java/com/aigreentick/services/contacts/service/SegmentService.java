@@ -0,0 +1,335 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
+import com.aigreentick.services.contacts.dto.request.SegmentCreateRequest;
+import com.aigreentick.services.contacts.dto.response.SegmentResponse;
+import com.aigreentick.services.contacts.entity.Contact;
+import com.aigreentick.services.contacts.entity.Segment;
+import com.aigreentick.services.contacts.exception.DuplicateSegmentException;
+import com.aigreentick.services.contacts.exception.SegmentNotFoundException;
+import com.aigreentick.services.contacts.repository.ContactRepository;
+import com.aigreentick.services.contacts.repository.SegmentMemberRepository;
+import com.aigreentick.services.contacts.repository.SegmentRepository;
+import com.aigreentick.services.contacts.specification.ContactSpecifications;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Saved segments: a named contact filter whose matching contact ids are stored in
+ * contact_segment_members.
+ *
+ * The filter is evaluated in full once, when the segment is created (or explicitly
+ * rematerialized). After that, every write path that can change a contact's filter
+ * inputs (contact fields, tags, attribute values) calls {@link #refreshMembership} for
+ * the contacts it touched, and only those contacts are re-evaluated — after the write
+ * has committed, on the query executor, so the request does not pay one filter query per
+ * segment. Contacts reported while an organization's refresh is running are batched into
+ * its next round; rounds of one organization never overlap. Counting and iterating a
+ * segment then reads the stored rows and never evaluates the predicate tree.
+ *
+ * Member inserts are INSERT IGNORE and member counts move by the rows actually inserted
+ * and deleted, so a refresh racing another instance's for the same contact neither
+ * fails on the primary key nor double-counts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SegmentService {
+
+    private static final int MATERIALIZE_BATCH_SIZE = 1000;
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+    private static final int MAX_MEMBERS_PAGE = 10_000;
+
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT IGNORE INTO contact_segment_members (segment_id, contact_id) VALUES (?, ?)";
+
+    private final SegmentRepository segmentRepository;
+    private final SegmentMemberRepository segmentMemberRepository;
+    private final ContactRepository contactRepository;
+    private final ContactSpecificationBuilder specificationBuilder;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService queryExecutor;
+
+    // Contacts awaiting refresh, per organization; a key is present while its refresh is scheduled or running
+    private final Map<Long, Set<Long>> pendingRefresh = new HashMap<>();
+
+    // ── Create / Rematerialize ────────────────────────────────────────────────
+
+    @Transactional
+    public SegmentResponse createSegment(SegmentCreateRequest request, Long organizationId) {
+        String name = request.getName().trim();
+        log.info("Creating segment '{}' for org: {}", name, organizationId);
+
+        if (segmentRepository.existsByOrganizationIdAndName(organizationId, name)) {
+            throw new DuplicateSegmentException(name);
+        }
+
+        // Build once up front so an invalid filter is rejected before anything is stored
+        Specification<Contact> spec = specificationBuilder.buildWithoutTagIndex(request.getFilter(), organizationId);
+
+        Segment segment = new Segment();
+        segment.setOrganizationId(organizationId);
+        segment.setName(name);
+        segment.setFilterJson(objectMapper.writeValueAsString(request.getFilter()));
+        segment = segmentRepository.save(segment);
+
+        materialize(segment, spec);
+        return toResponse(segment);
+    }
+
+    /**
+     * Recompute membership from scratch, e.g. after bulk changes made outside the service.
+     */
+    @Transactional
+    public SegmentResponse rematerialize(Long segmentId, Long organizationId) {
+        Segment segment = findSegment(segmentId, organizationId);
+        segmentMemberRepository.deleteBySegmentId(segment.getId());
+        materialize(segment, specificationBuilder.buildWithoutTagIndex(readFilter(segment), organizationId));
+        return toResponse(segment);
+    }
+
+    // ── Read ──────────────────────────────────────────────────────────────────
+
+    @Transactional(readOnly = true)
+    public List<SegmentResponse> listSegments(Long organizationId) {
+        return segmentRepository.findByOrganizationIdOrderByNameAsc(organizationId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public SegmentResponse getSegment(Long segmentId, Long organizationId) {
+        return toResponse(findSegment(segmentId, organizationId));
+    }
+
+    /**
+     * Member count as maintained on the segment row — no COUNT over the members table.
+     */
+    @Transactional(readOnly = true)
+    public long countMembers(Long segmentId, Long organizationId) {
+        return findSegment(segmentId, organizationId).getMemberCount();
+    }
+
+    /**
+     * Member contact ids in ascending order, after the given id (keyset pagination).
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getMemberIds(Long segmentId, Long organizationId, long afterContactId, int limit) {
+        Segment segment = findSegment(segmentId, organizationId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_MEMBERS_PAGE));
+        return segmentMemberRepository.findContactIdsAfter(
+                segment.getId(), afterContactId, PageRequest.of(0, pageSize));
+    }
+
+    // ── Delete ────────────────────────────────────────────────────────────────
+
+    @Transactional
+    public void deleteSegment(Long segmentId, Long organizationId) {
+        Segment segment = findSegment(segmentId, organizationId);
+        segmentMemberRepository.deleteBySegmentId(segment.getId());
+        segmentRepository.delete(segment);
+        log.info("Segment deleted: {}", segmentId);
+    }
+
+    // ── Incremental maintenance (called by contact write paths) ──────────────
+
+    /**
+     * Re-evaluate every segment of the organization for the given contacts only, once the
+     * current transaction has committed (immediately when there is none), in the background.
+     */
+    public void refreshMembership(Long organizationId, Collection<Long> contactIds) {
+        if (contactIds == null || contactIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(contactIds);
+        afterCommit(() -> enqueueRefresh(organizationId, ids));
+    }
+
+    /**
+     * Drop a deleted contact from every segment it belonged to.
+     */
+    @Transactional
+    public void removeContact(Long contactId) {
+        List<Long> segmentIds = segmentMemberRepository.findSegmentIdsByContactId(contactId);
+        if (segmentIds.isEmpty()) return;
+
+        segmentMemberRepository.deleteByContactId(contactId);
+        for (Long segmentId : segmentIds) {
+            segmentRepository.incrementMemberCount(segmentId, -1);
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    /**
+     * Walk the full filter result in id order and store it, batch by batch.
+     */
+    private void materialize(Segment segment, Specification<Contact> spec) {
+        long afterId = 0L;
+        long total = 0L;
+
+        while (true) {
+            List<Long> batch = contactRepository.findIds(spec, afterId, MATERIALIZE_BATCH_SIZE);
+            if (batch.isEmpty()) break;
+            insertMembers(segment.getId(), batch);
+            total += batch.size();
+            afterId = batch.get(batch.size() - 1);
+        }
+
+        segment.setMemberCount(total);
+        segment.setMaterializedAt(LocalDateTime.now());
+        segmentRepository.save(segment);
+        log.info("Segment {} materialized with {} members", segment.getId(), total);
+    }
+
+    // Multi-row INSERT through JDBC (rewriteBatchedStatements) — keeps member rows out of the persistence context
+    private void insertMembers(Long segmentId, List<Long> contactIds) {
+        jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, contactIds, contactIds.size(),
+                (ps, contactId) -> {
+                    ps.setLong(1, segmentId);
+                    ps.setLong(2, contactId);
+                });
+    }
+
+    /**
+     * Same insert as one multi-row statement, returning the rows actually inserted (rows
+     * another refresh inserted first are ignored and not counted).
+     */
+    private int insertNewMembers(Long segmentId, List<Long> contactIds) {
+        String sql = INSERT_MEMBER_SQL + ", (?, ?)".repeat(contactIds.size() - 1);
+        Object[] args = new Object[contactIds.size() * 2];
+        for (int i = 0; i < contactIds.size(); i++) {
+            args[2 * i] = segmentId;
+            args[2 * i + 1] = contactIds.get(i);
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+
+    private void enqueueRefresh(Long organizationId, List<Long> contactIds) {
+        boolean start;
+        synchronized (pendingRefresh) {
+            Set<Long> pending = pendingRefresh.get(organizationId);
+            start = pending == null;
+            if (start) {
+                pending = new LinkedHashSet<>();
+                pendingRefresh.put(organizationId, pending);
+            }
+            pending.addAll(contactIds);
+        }
+        if (start) queryExecutor.execute(() -> drainRefresh(organizationId));
+    }
+
+    /**
+     * Refresh the organization's pending contacts, round after round, until none are left.
+     */
+    private void drainRefresh(Long organizationId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        while (true) {
+            List<Long> ids;
+            synchronized (pendingRefresh) {
+                Set<Long> pending = pendingRefresh.get(organizationId);
+                if (pending.isEmpty()) {
+                    pendingRefresh.remove(organizationId);
+                    return;
+                }
+                ids = new ArrayList<>(pending);
+                pending.clear();
+            }
+            try {
+                tx.executeWithoutResult(status -> applyRefresh(organizationId, ids));
+            } catch (RuntimeException e) {
+                // Membership of these contacts stays stale until their next write or a rematerialize
+                log.warn("Segment refresh failed for org {} ({} contacts): {}",
+                        organizationId, ids.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Re-evaluate the organization's segments for these contacts and apply the difference to
+     * the stored membership and member counts.
+     */
+    private void applyRefresh(Long organizationId, List<Long> ids) {
+        List<Segment> segments = segmentRepository.findByOrganizationIdOrderByNameAsc(organizationId);
+        if (segments.isEmpty()) return;
+
+        for (Segment segment : segments) {
+            Specification<Contact> spec =
+                    specificationBuilder.buildWithoutTagIndex(readFilter(segment), organizationId);
+
+            for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, ids.size()));
+
+                Set<Long> matching = new HashSet<>(contactRepository.findIds(
+                        spec.and(ContactSpecifications.hasIdIn(chunk)), 0L, chunk.size()));
+                Set<Long> current = new HashSet<>(
+                        segmentMemberRepository.findMemberIdsIn(segment.getId(), chunk));
+
+                List<Long> added = new ArrayList<>();
+                List<Long> removed = new ArrayList<>();
+                for (Long id : chunk) {
+                    boolean matches = matching.contains(id);
+                    boolean member = current.contains(id);
+                    if (matches && !member) added.add(id);
+                    else if (!matches && member) removed.add(id);
+                }
+
+                int inserted = added.isEmpty() ? 0 : insertNewMembers(segment.getId(), added);
+                int deleted = removed.isEmpty() ? 0
+                        : segmentMemberRepository.deleteBySegmentIdAndContactIdIn(segment.getId(), removed);
+                if (inserted != deleted) {
+                    segmentRepository.incrementMemberCount(segment.getId(), inserted - deleted);
+                }
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Segment findSegment(Long segmentId, Long organizationId) {
+        return segmentRepository.findByIdAndOrganizationId(segmentId, organizationId)
+                .orElseThrow(() -> new SegmentNotFoundException(segmentId));
+    }
+
+    private ContactSearchRequest readFilter(Segment segment) {
+        return objectMapper.readValue(segment.getFilterJson(), ContactSearchRequest.class);
+    }
+
+    private SegmentResponse toResponse(Segment segment) {
+        return SegmentResponse.builder()
+                .id(segment.getId())
+                .name(segment.getName())
+                .filter(readFilter(segment))
+                .memberCount(segment.getMemberCount())
+                .materializedAt(segment.getMaterializedAt())
+                .createdAt(segment.getCreatedAt())
+                .updatedAt(segment.getUpdatedAt())
+                .build();
+    }
+}
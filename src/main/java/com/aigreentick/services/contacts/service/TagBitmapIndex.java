@@ -0,0 +1,304 @@
+package com.aigreentick.services.contacts.service;
+
+import com.aigreentick.services.contacts.repository.ContactTagAssignmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process tag membership index: per organization, tagId → compressed bitmap of contact ids.
+ *
+ * An organization's index is loaded from contact_tag_assignments the first time one of its
+ * searches filters by tag, then kept current by ContactService, which reports tag changes
+ * here; the change is applied after the writing transaction commits, so a rollback never
+ * reaches the index. Changes reported while an index is still loading are queued and
+ * replayed on top of the snapshot (replacing a contact's tags is idempotent, so replaying
+ * a change the snapshot already contains is harmless).
+ *
+ * Tag changes made by other instances (or outside this service) are not reported here, so
+ * every index in use is rebuilt from the database in the background every
+ * {@link #REBUILD_INTERVAL_SECONDS} seconds and swapped in when complete; changes reported
+ * during a rebuild reach both the serving and the new index. An index whose rebuilds keep
+ * failing is not served past {@link #MAX_INDEX_AGE_MILLIS}: the next search reloads it
+ * synchronously. Tag filters may therefore miss another instance's changes for about one
+ * rebuild interval. Indexes not searched for {@link #IDLE_EVICTION_MILLIS} are dropped
+ * instead of rebuilt.
+ *
+ * Tag filters then become bitmap OR / AND / ANDNOT; ContactSpecificationBuilder turns small
+ * results into an id list and falls back to the SQL subqueries for large ones.
+ */
+@Slf4j
+@Component
+public class TagBitmapIndex {
+
+    private static final int MAX_INDEXED_ORGANIZATIONS = 500;
+    private static final long REBUILD_INTERVAL_SECONDS = 60;
+    private static final long MAX_INDEX_AGE_MILLIS = 5 * 60 * 1000L;
+    private static final long IDLE_EVICTION_MILLIS = 30 * 60 * 1000L;
+
+    private final ContactTagAssignmentRepository tagAssignmentRepository;
+    private final TransactionTemplate loadTransaction;
+    private final ExecutorService queryExecutor;
+
+    private final Map<Long, OrgIndex> indexes = new ConcurrentHashMap<>();
+
+    public TagBitmapIndex(
+            ContactTagAssignmentRepository tagAssignmentRepository,
+            PlatformTransactionManager transactionManager,
+            ExecutorService queryExecutor
+    ) {
+        this.tagAssignmentRepository = tagAssignmentRepository;
+        this.queryExecutor = queryExecutor;
+        // Own transaction: the snapshot must not be older than the index object that
+        // starts collecting concurrent changes (a caller's repeatable-read snapshot could be)
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Not read-only: read-only transactions may be served by a lagging read replica
+        // (ReadReplicaDataSourceConfig), and the snapshot must hold every committed change
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Contacts carrying at least one of the tags.
+     */
+    public Roaring64Bitmap anyOf(Long organizationId, Collection<Long> tagIds) {
+        OrgIndex index = load(organizationId);
+        index.lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = new Roaring64Bitmap();
+            for (Long tagId : tagIds) {
+                Roaring64Bitmap contacts = index.byTag.get(tagId);
+                if (contacts != null) result.or(contacts);
+            }
+            return result;
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Contacts carrying every one of the tags.
+     */
+    public Roaring64Bitmap allOf(Long organizationId, Collection<Long> tagIds) {
+        OrgIndex index = load(organizationId);
+        index.lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            for (Long tagId : tagIds) {
+                Roaring64Bitmap contacts = index.byTag.get(tagId);
+                if (contacts == null) return new Roaring64Bitmap();
+                if (result == null) result = contacts.clone();
+                else result.and(contacts);
+            }
+            return result != null ? result : new Roaring64Bitmap();
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    // ── Maintenance (called by contact write paths) ───────────────────────────
+
+    /**
+     * Record that a contact's tags are now exactly tagIds.
+     */
+    public void replaceContactTags(Long organizationId, Long contactId, Collection<Long> tagIds) {
+        Set<Long> tags = tagIds != null ? Set.copyOf(tagIds) : Set.of();
+        afterCommit(() -> apply(organizationId, new Change(contactId, tags)));
+    }
+
+    /**
+     * Record that a contact was deleted.
+     */
+    public void removeContact(Long organizationId, Long contactId) {
+        afterCommit(() -> apply(organizationId, new Change(contactId, Set.of())));
+    }
+
+    /**
+     * Rebuild every index in use from the database and swap it in; drop idle ones.
+     */
+    @Scheduled(fixedDelay = REBUILD_INTERVAL_SECONDS, initialDelay = REBUILD_INTERVAL_SECONDS,
+            timeUnit = TimeUnit.SECONDS)
+    public void rebuildAll() {
+        long idleBefore = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        for (Map.Entry<Long, OrgIndex> entry : indexes.entrySet()) {
+            OrgIndex index = entry.getValue();
+            if (!index.ready) continue;   // still loading on a search thread
+            if (index.lastAccess < idleBefore) {
+                indexes.remove(entry.getKey(), index);
+            } else if (index.rebuilding.compareAndSet(false, true)) {
+                // Off the scheduler thread, which also runs the replica lag checks
+                queryExecutor.execute(() -> rebuild(entry.getKey(), index));
+            }
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    private OrgIndex load(Long organizationId) {
+        OrgIndex index = indexes.computeIfAbsent(organizationId, id -> new OrgIndex());
+        long now = System.currentTimeMillis();
+        if (index.ready && now - index.loadedAt > MAX_INDEX_AGE_MILLIS) {
+            // Background rebuilds have been failing: do not serve it any longer
+            indexes.remove(organizationId, index);
+            index = indexes.computeIfAbsent(organizationId, id -> new OrgIndex());
+        }
+        index.lastAccess = now;
+        if (index.ready) return index;
+
+        synchronized (index) {
+            if (index.ready) return index;
+            try {
+                fill(organizationId, index);
+            } catch (RuntimeException e) {
+                indexes.remove(organizationId, index);
+                throw e;
+            }
+        }
+
+        evictIfNeeded();
+        return index;
+    }
+
+    private void rebuild(Long organizationId, OrgIndex current) {
+        OrgIndex next = new OrgIndex();
+        next.lastAccess = current.lastAccess;
+        // Registered before the snapshot is read, so changes committed meanwhile reach it
+        current.lock.writeLock().lock();
+        try {
+            current.next = next;
+        } finally {
+            current.lock.writeLock().unlock();
+        }
+
+        try {
+            fill(organizationId, next);
+            // current keeps pointing at next, so a change applied to it by a caller that
+            // looked it up before the swap is still forwarded
+            indexes.replace(organizationId, current, next);
+        } catch (RuntimeException e) {
+            log.warn("Tag bitmap index rebuild failed for org {}: {}", organizationId, e.getMessage());
+            current.lock.writeLock().lock();
+            try {
+                current.next = null;
+            } finally {
+                current.lock.writeLock().unlock();
+            }
+        } finally {
+            current.rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Load the organization's assignments into an index that is not ready yet, replay the
+     * changes queued meanwhile, and mark it ready.
+     */
+    private void fill(Long organizationId, OrgIndex index) {
+        long startedAt = System.currentTimeMillis();
+        List<Object[]> pairs = loadTransaction.execute(status ->
+                tagAssignmentRepository.findTagContactPairsByOrganizationId(organizationId));
+
+        index.lock.writeLock().lock();
+        try {
+            for (Object[] row : pairs) {
+                index.byTag.computeIfAbsent((Long) row[0], t -> new Roaring64Bitmap())
+                        .addLong((Long) row[1]);
+            }
+            for (Change change : index.pending) {
+                change.applyTo(index);
+            }
+            index.pending.clear();
+            index.byTag.values().forEach(Roaring64Bitmap::runOptimize);
+            index.loadedAt = startedAt;
+            index.ready = true;
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        log.debug("Tag bitmap index loaded for org {} — {} tags, {} assignments",
+                organizationId, index.byTag.size(), pairs.size());
+    }
+
+    private void apply(Long organizationId, Change change) {
+        // Organizations nobody has searched by tag yet are not indexed — nothing to update
+        OrgIndex index = indexes.get(organizationId);
+        while (index != null) {
+            OrgIndex next;
+            index.lock.writeLock().lock();
+            try {
+                applyOrQueue(index, change);
+                next = index.next;
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+            index = next;
+        }
+    }
+
+    // Caller holds index's write lock
+    private static void applyOrQueue(OrgIndex index, Change change) {
+        if (index.ready) {
+            change.applyTo(index);
+        } else {
+            index.pending.add(change);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void evictIfNeeded() {
+        // Least recently searched organization first; it is simply reloaded on its next search
+        while (indexes.size() > MAX_INDEXED_ORGANIZATIONS) {
+            Optional<Map.Entry<Long, OrgIndex>> oldest = indexes.entrySet().stream()
+                    .filter(e -> e.getValue().ready)
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            if (oldest.isEmpty()) return;
+            indexes.remove(oldest.get().getKey(), oldest.get().getValue());
+        }
+    }
+
+    private static class OrgIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Roaring64Bitmap> byTag = new HashMap<>();
+        final List<Change> pending = new ArrayList<>();
+        final AtomicBoolean rebuilding = new AtomicBoolean();
+        OrgIndex next;   // guarded by lock; rebuilt index (being built or swapped in), receives this one's changes
+        volatile boolean ready;
+        volatile long loadedAt;     // wall-clock start of the snapshot read
+        volatile long lastAccess;   // wall clock
+    }
+
+    private record Change(Long contactId, Set<Long> tagIds) {
+        void applyTo(OrgIndex index) {
+            for (Roaring64Bitmap contacts : index.byTag.values()) {
+                contacts.removeLong(contactId);
+            }
+            for (Long tagId : tagIds) {
+                index.byTag.computeIfAbsent(tagId, t -> new Roaring64Bitmap()).addLong(contactId);
+            }
+        }
+    }
+}
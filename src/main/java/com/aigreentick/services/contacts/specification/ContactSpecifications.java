@@ -1,14 +1,20 @@
 package com.aigreentick.services.contacts.specification;
 
+import com.aigreentick.services.contacts.dto.request.AttributeFilter;
+import com.aigreentick.services.contacts.dto.request.ContactSearchRequest;
 import com.aigreentick.services.contacts.entity.AttributeDefinition;
 import com.aigreentick.services.contacts.entity.Contact;
 import com.aigreentick.services.contacts.entity.ContactAttributeValue;
+import com.aigreentick.services.contacts.entity.ContactSearchToken;
 import com.aigreentick.services.contacts.entity.ContactTagAssignment;
+import com.aigreentick.services.contacts.exception.InvalidAttributeException;
+import com.aigreentick.services.contacts.util.AttributeValueUtil;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.BiFunction;
 
 public class ContactSpecifications {
 
@@ -17,6 +23,13 @@ public class ContactSpecifications {
                 cb.equal(root.get("organizationId"), organizationId);
     }
 
+    /**
+     * Restrict to an explicit set of contact ids (incremental segment refresh).
+     */
+    public static Specification<Contact> hasIdIn(Collection<Long> contactIds) {
+        return (root, query, cb) -> root.get("id").in(contactIds);
+    }
+
     public static Specification<Contact> hasNameLike(String name) {
         return (root, query, cb) -> {
             if (name == null || name.trim().isEmpty()) return cb.conjunction();
@@ -24,24 +37,72 @@ public class ContactSpecifications {
         };
     }
 
-    public static Specification<Contact> hasPhoneLike(String phone) {
+    /**
+     * Match contacts whose phone ends with the given digits — agents search by the last
+     * 4–6 digits, and a full number is simply its own longest suffix. Matching runs on
+     * reversed_phone, so the suffix becomes a prefix range scan on idx_org_reversed_phone.
+     */
+    public static Specification<Contact> hasPhoneSuffix(String phone) {
+        return (root, query, cb) -> {
+            if (phone == null || phone.trim().isEmpty()) return cb.conjunction();
+            String digits = phone.replaceAll("[^0-9+]", "");
+            if (digits.isEmpty()) return cb.disjunction();
+            String reversed = new StringBuilder(digits).reverse().toString();
+            return cb.like(root.get("reversedPhone"), reversed + "%");
+        };
+    }
+
+    /**
+     * Same match as {@link #hasPhoneSuffix(String)} on wa_phone_e164 — a scan of the
+     * organization's contacts, for use while reversed_phone is still being backfilled.
+     */
+    public static Specification<Contact> hasPhoneEndingWith(String phone) {
         return (root, query, cb) -> {
             if (phone == null || phone.trim().isEmpty()) return cb.conjunction();
-            return cb.like(root.get("waPhoneE164"), "%" + phone + "%");
+            String digits = phone.replaceAll("[^0-9+]", "");
+            if (digits.isEmpty()) return cb.disjunction();
+            return cb.like(root.get("waPhoneE164"), "%" + digits);
         };
     }
 
+    /**
+     * Match contacts whose name or phone contains the term literally: % and _ in the term
+     * are not wildcards, so the LIKE agrees with the trigram prefilter of
+     * {@link #hasSearchTokens(Long, Set)}.
+     */
     public static Specification<Contact> searchByNameOrPhone(String searchTerm) {
         return (root, query, cb) -> {
             if (searchTerm == null || searchTerm.trim().isEmpty()) return cb.conjunction();
-            String pattern = "%" + searchTerm.toLowerCase() + "%";
+            String pattern = "%" + escapeLike(searchTerm.toLowerCase()) + "%";
             return cb.or(
-                    cb.like(cb.lower(root.get("displayName")), pattern),
-                    cb.like(root.get("waPhoneE164"), pattern)
+                    cb.like(cb.lower(root.get("displayName")), pattern, LIKE_ESCAPE),
+                    cb.like(root.get("waPhoneE164"), pattern, LIKE_ESCAPE)
             );
         };
     }
 
+    /**
+     * Restrict to contacts whose trigram index holds every one of the given tokens.
+     * This is a superset of the substring matches, answered from idx_org_token, and is
+     * meant to be combined with {@link #searchByNameOrPhone(String)} as the residual filter.
+     */
+    public static Specification<Contact> hasSearchTokens(Long organizationId, Set<String> tokens) {
+        return (root, query, cb) -> {
+            if (tokens == null || tokens.isEmpty()) return cb.conjunction();
+
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ContactSearchToken> tokenRoot = subquery.from(ContactSearchToken.class);
+            subquery.select(tokenRoot.get("contactId"))
+                    .where(
+                            cb.equal(tokenRoot.get("organizationId"), organizationId),
+                            tokenRoot.get("token").in(tokens)
+                    )
+                    .groupBy(tokenRoot.get("contactId"))
+                    .having(cb.equal(cb.countDistinct(tokenRoot.get("token")), (long) tokens.size()));
+            return root.get("id").in(subquery);
+        };
+    }
+
     public static Specification<Contact> hasSource(String source) {
         return (root, query, cb) -> {
             if (source == null || source.trim().isEmpty()) return cb.conjunction();
@@ -70,38 +131,245 @@ public class ContactSpecifications {
     }
 
     /**
-     * FIX: The original used query.from(AttributeDefinition.class) which added a cross join
-     * to the root query causing a Cartesian product. Both roots must live inside the subquery.
+     * Contacts carrying every one of the given tags (one EXISTS per tag).
      */
-    public static Specification<Contact> hasAttribute(String attributeKey, String attributeValue) {
+    public static Specification<Contact> hasAllTags(List<Long> tagIds) {
         return (root, query, cb) -> {
-            if (attributeKey == null || attributeKey.trim().isEmpty()) return cb.conjunction();
+            if (tagIds == null || tagIds.isEmpty()) return cb.conjunction();
 
-            // Outer subquery: find contact IDs that have this attribute key (+ optional value)
-            Subquery<Long> subquery = query.subquery(Long.class);
-            Root<ContactAttributeValue> valueRoot = subquery.from(ContactAttributeValue.class);
+            List<Predicate> predicates = new ArrayList<>();
+            for (Long tagId : new LinkedHashSet<>(tagIds)) {
+                Subquery<Long> subquery = query.subquery(Long.class);
+                Root<ContactTagAssignment> tagRoot = subquery.from(ContactTagAssignment.class);
+                subquery.select(tagRoot.get("contactId"))
+                        .where(
+                                cb.equal(tagRoot.get("contactId"), root.get("id")),
+                                cb.equal(tagRoot.get("tagId"), tagId)
+                        );
+                predicates.add(cb.exists(subquery));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
 
-            // Inner correlated subquery: find the attribute definition ID for the given key
-            Subquery<Long> defSubquery = subquery.subquery(Long.class);
-            Root<AttributeDefinition> defRoot = defSubquery.from(AttributeDefinition.class);
-            defSubquery.select(defRoot.get("id"))
-                    .where(cb.equal(defRoot.get("attrKey"), attributeKey));
+    /**
+     * Contacts carrying none of the given tags.
+     */
+    public static Specification<Contact> hasNoneOfTags(List<Long> tagIds) {
+        return (root, query, cb) -> {
+            if (tagIds == null || tagIds.isEmpty()) return cb.conjunction();
+            return cb.not(hasTags(tagIds).toPredicate(root, query, cb));
+        };
+    }
 
-            // Predicates for the outer subquery
-            Predicate contactMatch = cb.equal(valueRoot.get("contactId"), root.get("id"));
-            Predicate defMatch = valueRoot.get("attributeDefinitionId").in(defSubquery);
+    /**
+     * Contacts holding a value for one attribute definition, optionally matching a text value.
+     *
+     * The caller resolves (organizationId, attrKey) to the definition id first (see
+     * AttributeDefinitionResolver), so the subquery is pinned to a single tenant's definition
+     * instead of an IN over every tenant's definitions with that key. EXACT and PREFIX compare
+     * value_text without LOWER(), so they are served by idx_attr_text
+     * (attribute_definition_id, value_text); case-insensitivity comes from the column collation.
+     * CONTAINS keeps the original substring semantics and cannot use the index.
+     */
+    public static Specification<Contact> hasAttribute(
+            Long attributeDefinitionId,
+            String attributeValue,
+            ContactSearchRequest.AttributeMatch match
+    ) {
+        if (attributeValue == null || attributeValue.trim().isEmpty()) {
+            return hasAttributeValue(attributeDefinitionId, (value, cb) -> cb.conjunction());
+        }
 
-            Predicate valuePredicate = (attributeValue != null && !attributeValue.trim().isEmpty())
-                    ? cb.like(cb.lower(valueRoot.get("valueText")), "%" + attributeValue.toLowerCase() + "%")
-                    : cb.conjunction();
+        return switch (match != null ? match : ContactSearchRequest.AttributeMatch.CONTAINS) {
+            case EXACT -> hasAttributeValue(attributeDefinitionId,
+                    (value, cb) -> cb.equal(value.get("valueText"), attributeValue));
+            case PREFIX -> hasAttributeValue(attributeDefinitionId,
+                    (value, cb) -> cb.like(value.get("valueText"), escapeLike(attributeValue) + "%", LIKE_ESCAPE));
+            case CONTAINS -> hasAttributeValue(attributeDefinitionId,
+                    (value, cb) -> cb.like(value.get("valueText"), "%" + escapeLike(attributeValue) + "%", LIKE_ESCAPE));
+        };
+    }
 
-            subquery.select(valueRoot.get("contactId"))
-                    .where(contactMatch, defMatch, valuePredicate);
+    /**
+     * Matches nothing — used when a filter references an attribute key the organization does not have.
+     */
+    public static Specification<Contact> none() {
+        return (root, query, cb) -> cb.disjunction();
+    }
+
+    private static final int MAX_FILTER_DEPTH = 8;
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Every attribute key referenced by a filter tree, so the caller can resolve them
+     * to definitions (one query) before compiling.
+     */
+    public static Set<String> filterKeys(AttributeFilter filter) {
+        Set<String> keys = new LinkedHashSet<>();
+        collectFilterKeys(filter, keys);
+        return keys;
+    }
+
+    /**
+     * Compile a filter tree into a Specification. Keys are looked up in {@code definitions}
+     * (attrKey → definition, already scoped to the organization); each leaf becomes an EXISTS
+     * on contact_attribute_values pinned to one attribute_definition_id and comparing the
+     * typed column for that definition, so idx_attr_text / idx_attr_number / idx_attr_date
+     * drive the lookup. A key with no definition matches no contact.
+     *
+     * @throws InvalidAttributeException for malformed trees or operands that do not parse
+     */
+    public static Specification<Contact> matchesFilter(
+            AttributeFilter filter,
+            Map<String, AttributeDefinition> definitions
+    ) {
+        return compileFilter(filter, definitions, 1);
+    }
+
+    private static Specification<Contact> compileFilter(
+            AttributeFilter filter,
+            Map<String, AttributeDefinition> definitions,
+            int depth
+    ) {
+        if (filter == null || filter.getOp() == null) {
+            throw new InvalidAttributeException("Filter op is required");
+        }
+        if (depth > MAX_FILTER_DEPTH) {
+            throw new InvalidAttributeException("Filter nesting exceeds " + MAX_FILTER_DEPTH + " levels");
+        }
+
+        AttributeFilter.Operator op = filter.getOp();
+        List<AttributeFilter> children = filter.getFilters();
+
+        switch (op) {
+            case AND, OR -> {
+                if (children == null || children.isEmpty()) {
+                    throw new InvalidAttributeException(op + " filter needs at least one child filter");
+                }
+                List<Specification<Contact>> compiled = new ArrayList<>();
+                for (AttributeFilter child : children) {
+                    compiled.add(compileFilter(child, definitions, depth + 1));
+                }
+                return op == AttributeFilter.Operator.AND
+                        ? Specification.allOf(compiled)
+                        : Specification.anyOf(compiled);
+            }
+            case NOT -> {
+                if (children == null || children.size() != 1) {
+                    throw new InvalidAttributeException("NOT filter needs exactly one child filter");
+                }
+                return Specification.not(compileFilter(children.get(0), definitions, depth + 1));
+            }
+            default -> {
+                return compileLeaf(filter, definitions);
+            }
+        }
+    }
+
+    private static Specification<Contact> compileLeaf(
+            AttributeFilter filter,
+            Map<String, AttributeDefinition> definitions
+    ) {
+        String key = filter.getKey();
+        if (key == null || key.trim().isEmpty()) {
+            throw new InvalidAttributeException(filter.getOp() + " filter needs an attribute key");
+        }
+
+        AttributeDefinition definition = definitions.get(key.trim());
+        if (definition == null) {
+            return none();
+        }
+
+        String column = AttributeValueUtil.typedColumn(definition.getDataType());
+
+        return switch (filter.getOp()) {
+            case EXISTS -> hasAttributeValue(definition.getId(), (value, cb) -> cb.conjunction());
+            case EQ -> {
+                Object operand = AttributeValueUtil.parseTyped(definition, filter.getValue());
+                yield hasAttributeValue(definition.getId(), (value, cb) -> cb.equal(value.get(column), operand));
+            }
+            case IN -> {
+                if (filter.getValues() == null || filter.getValues().isEmpty()) {
+                    throw new InvalidAttributeException("IN filter needs values for attribute: " + key);
+                }
+                List<Object> operands = new ArrayList<>();
+                for (String v : filter.getValues()) {
+                    operands.add(AttributeValueUtil.parseTyped(definition, v));
+                }
+                yield hasAttributeValue(definition.getId(), (value, cb) -> value.get(column).in(operands));
+            }
+            case RANGE -> {
+                if (filter.getMin() == null && filter.getMax() == null) {
+                    throw new InvalidAttributeException("RANGE filter needs min and/or max for attribute: " + key);
+                }
+                if (definition.getDataType() == AttributeDefinition.DataType.boolean_) {
+                    throw new InvalidAttributeException("RANGE is not supported on boolean attribute: " + key);
+                }
+                Comparable<?> min = filter.getMin() != null
+                        ? AttributeValueUtil.parseTyped(definition, filter.getMin()) : null;
+                Comparable<?> max = filter.getMax() != null
+                        ? AttributeValueUtil.parseTyped(definition, filter.getMax()) : null;
+                yield hasAttributeValue(definition.getId(), (value, cb) -> range(cb, value.get(column), min, max));
+            }
+            case PREFIX -> {
+                if (!"valueText".equals(column)) {
+                    throw new InvalidAttributeException("PREFIX is only supported on text attributes: " + key);
+                }
+                if (filter.getValue() == null || filter.getValue().isEmpty()) {
+                    throw new InvalidAttributeException("PREFIX filter needs a value for attribute: " + key);
+                }
+                String pattern = escapeLike(filter.getValue()) + "%";
+                yield hasAttributeValue(definition.getId(),
+                        (value, cb) -> cb.like(value.get(column), pattern, LIKE_ESCAPE));
+            }
+            default -> throw new InvalidAttributeException("Unsupported filter op: " + filter.getOp());
+        };
+    }
 
+    /**
+     * EXISTS (contact has a value row for this definition satisfying the value predicate)
+     */
+    private static Specification<Contact> hasAttributeValue(
+            Long definitionId,
+            BiFunction<Root<ContactAttributeValue>, CriteriaBuilder, Predicate> valuePredicate
+    ) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ContactAttributeValue> valueRoot = subquery.from(ContactAttributeValue.class);
+            subquery.select(valueRoot.get("contactId"))
+                    .where(
+                            cb.equal(valueRoot.get("attributeDefinitionId"), definitionId),
+                            cb.equal(valueRoot.get("contactId"), root.get("id")),
+                            valuePredicate.apply(valueRoot, cb)
+                    );
             return cb.exists(subquery);
         };
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate range(CriteriaBuilder cb, Path path, Comparable min, Comparable max) {
+        if (min != null && max != null) return cb.between(path, min, max);
+        if (min != null) return cb.greaterThanOrEqualTo(path, min);
+        return cb.lessThanOrEqualTo(path, max);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static void collectFilterKeys(AttributeFilter filter, Set<String> keys) {
+        if (filter == null) return;
+        if (filter.getKey() != null && !filter.getKey().trim().isEmpty()) {
+            keys.add(filter.getKey().trim());
+        }
+        if (filter.getFilters() != null) {
+            for (AttributeFilter child : filter.getFilters()) {
+                collectFilterKeys(child, keys);
+            }
+        }
+    }
+
     public static Specification<Contact> createdBetween(LocalDateTime startDate, LocalDateTime endDate) {
         return (root, query, cb) -> {
             if (startDate == null && endDate == null) return cb.conjunction();
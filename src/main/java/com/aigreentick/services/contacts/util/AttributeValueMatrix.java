@@ -0,0 +1,105 @@
+package com.aigreentick.services.contacts.util;
+
+/**
+ * Contact × attribute value table for bulk attribute responses: one row per contact (in
+ * the order given), one column per requested key, all cells in a single String[].
+ *
+ * Rows are found by contact id through flat primitive arrays — an open-addressing
+ * long → int table of first rows plus a next-row chain for repeated ids — so filling the
+ * table from value rows costs one probe per value and no per-contact maps, boxed keys or
+ * entry objects. Columns are matched by attribute definition id with a linear scan
+ * (requests carry tens of keys, not thousands). A contact or definition id may repeat;
+ * every matching cell is filled. Id 0 is reserved (ids are database identities, never 0).
+ * Not thread-safe.
+ */
+public class AttributeValueMatrix {
+
+    // Column id of keys without a definition: never matches a stored value
+    public static final long NO_COLUMN = 0L;
+
+    private final long[] rowIds;
+    private final long[] columnIds;
+    private final String[] values;
+
+    private final long[] slotIds;
+    private final int[] slotFirstRow;
+    private final int[] nextRow;   // next row with the same id, or -1
+
+    /**
+     * @param rowIds    contact id of each row, in response order
+     * @param columnIds attribute definition id of each column, {@link #NO_COLUMN} when the
+     *                  key has no definition
+     */
+    public AttributeValueMatrix(long[] rowIds, long[] columnIds) {
+        this.rowIds = rowIds;
+        this.columnIds = columnIds;
+        this.values = new String[Math.multiplyExact(rowIds.length, columnIds.length)];
+
+        // Power of two, at most half full
+        int capacity = Integer.highestOneBit(Math.max(16, rowIds.length * 2) - 1) << 1;
+        this.slotIds = new long[capacity];
+        this.slotFirstRow = new int[capacity];
+        this.nextRow = new int[rowIds.length];
+
+        int mask = capacity - 1;
+        // Backwards, so each id's chain runs in row order
+        for (int row = rowIds.length - 1; row >= 0; row--) {
+            long id = rowIds[row];
+            if (id == 0L) throw new IllegalArgumentException("Row id 0 is reserved");
+            int slot = mix(id) & mask;
+            while (slotIds[slot] != 0L && slotIds[slot] != id) slot = (slot + 1) & mask;
+            nextRow[row] = slotIds[slot] == id ? slotFirstRow[slot] : -1;
+            slotIds[slot] = id;
+            slotFirstRow[slot] = row;
+        }
+    }
+
+    /**
+     * Store value in every cell of rowId's rows and columnId's columns. Unknown ids are
+     * ignored.
+     */
+    public void put(long rowId, long columnId, String value) {
+        if (columnId == NO_COLUMN || rowId == 0L) return;
+        for (int row = firstRow(rowId); row != -1; row = nextRow[row]) {
+            int offset = row * columnIds.length;
+            for (int column = 0; column < columnIds.length; column++) {
+                if (columnIds[column] == columnId) values[offset + column] = value;
+            }
+        }
+    }
+
+    /**
+     * @return the value at (row, column), or null when none was stored
+     */
+    public String get(int row, int column) {
+        return values[row * columnIds.length + column];
+    }
+
+    public long rowId(int row) {
+        return rowIds[row];
+    }
+
+    public int rowCount() {
+        return rowIds.length;
+    }
+
+    public int columnCount() {
+        return columnIds.length;
+    }
+
+    // First row with id, or -1
+    private int firstRow(long id) {
+        int mask = slotIds.length - 1;
+        for (int slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+            long k = slotIds[slot];
+            if (k == id) return slotFirstRow[slot];
+            if (k == 0L) return -1;
+        }
+    }
+
+    // Contact ids are sequential; spread them before masking
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,111 @@
+package com.aigreentick.services.contacts.util;
+
+import com.aigreentick.services.contacts.entity.AttributeDefinition;
+import com.aigreentick.services.contacts.entity.ContactAttributeValue;
+import com.aigreentick.services.contacts.exception.InvalidAttributeException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversions between raw attribute strings and the typed value_* columns.
+ */
+public class AttributeValueUtil {
+
+    /**
+     * Store a raw value on an attribute row.
+     * value_text always keeps the raw string (it is what the read paths display); the typed
+     * column matching the definition's data type is filled as well when the value parses,
+     * so that typed filters can use idx_attr_number / idx_attr_date / idx_attr_datetime.
+     */
+    public static void assign(ContactAttributeValue target, AttributeDefinition definition, String raw) {
+        target.setValueText(raw);
+        target.setValueNumber(null);
+        target.setValueDecimal(null);
+        target.setValueBool(null);
+        target.setValueDate(null);
+        target.setValueDatetime(null);
+
+        Object typed = typedValue(definition.getDataType(), raw);
+        if (typed == null) return;
+        switch (definition.getDataType()) {
+            case number -> target.setValueNumber((Long) typed);
+            case decimal -> target.setValueDecimal((BigDecimal) typed);
+            case boolean_ -> target.setValueBool((Boolean) typed);
+            case date -> target.setValueDate((LocalDate) typed);
+            case datetime -> target.setValueDatetime((LocalDateTime) typed);
+            default -> { }
+        }
+    }
+
+    /**
+     * The value {@link #assign} stores in the typed column of this data type, or null when
+     * the type has none or the raw value does not parse (it is then kept as text only).
+     * Also used to backfill typed columns of rows written before they existed.
+     */
+    public static Object typedValue(AttributeDefinition.DataType dataType, String raw) {
+        if (raw == null || dataType == null) return null;
+        try {
+            String value = raw.trim();
+            return switch (dataType) {
+                case number -> Long.parseLong(value);
+                case decimal -> new BigDecimal(value);
+                case boolean_ -> parseBoolean(value);
+                case date -> LocalDate.parse(value);
+                case datetime -> LocalDateTime.parse(value);
+                default -> null;
+            };
+        } catch (NumberFormatException | DateTimeParseException | InvalidAttributeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Name of the entity attribute a filter on this data type compares against.
+     */
+    public static String typedColumn(AttributeDefinition.DataType dataType) {
+        if (dataType == null) return "valueText";
+        return switch (dataType) {
+            case number -> "valueNumber";
+            case decimal -> "valueDecimal";
+            case boolean_ -> "valueBool";
+            case date -> "valueDate";
+            case datetime -> "valueDatetime";
+            default -> "valueText";
+        };
+    }
+
+    /**
+     * Parse a filter operand into the Java type of {@link #typedColumn}.
+     *
+     * @throws InvalidAttributeException when the operand does not match the data type
+     */
+    public static Comparable<?> parseTyped(AttributeDefinition definition, String raw) {
+        if (raw == null) {
+            throw new InvalidAttributeException("Missing value for attribute: " + definition.getAttrKey());
+        }
+        String value = raw.trim();
+        try {
+            if (definition.getDataType() == null) return raw;
+            return switch (definition.getDataType()) {
+                case number -> Long.parseLong(value);
+                case decimal -> new BigDecimal(value);
+                case boolean_ -> parseBoolean(value);
+                case date -> LocalDate.parse(value);
+                case datetime -> LocalDateTime.parse(value);
+                default -> raw;
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidAttributeException("Invalid " + definition.getDataType().name()
+                    + " value '" + raw + "' for attribute: " + definition.getAttrKey());
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) return Boolean.TRUE;
+        if ("false".equalsIgnoreCase(value)) return Boolean.FALSE;
+        throw new InvalidAttributeException("Invalid boolean value: " + value);
+    }
+}
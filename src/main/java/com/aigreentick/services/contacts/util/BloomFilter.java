@@ -0,0 +1,89 @@
+package com.aigreentick.services.contacts.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings: {@link #mightContain} never returns false for a value
+ * that was {@link #put}, and returns true for an absent value with roughly the configured
+ * false-positive probability while the filter holds no more than its expected entries.
+ *
+ * Bits live in an AtomicLongArray, so puts and lookups are safe from any thread without
+ * locking. Values cannot be removed; callers rebuild the filter to forget them.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.words = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+        this.numBits = (long) words.length() << 6;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Size the filter for expectedEntries values at the given false-positive probability
+     * (m = -n·ln p / ln²2 bits, k = m/n · ln 2 hash functions).
+     */
+    public static BloomFilter forExpectedEntries(long expectedEntries, double falsePositiveProbability) {
+        long n = Math.max(1, expectedEntries);
+        long numBits = Math.max(64, (long) (-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x5851F42D4C957F2DL) | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = words.getAndUpdate(word, w -> w | mask);
+            if ((previous & mask) == 0) bitsSet.incrementAndGet();
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x5851F42D4C957F2DL) | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * False-positive probability at the current fill: (bits set / bits)^k.
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) bitsSet.get() / numBits, numHashes);
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    // FNV-1a over the chars, then a 64-bit finalizer so nearby phone numbers spread out
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -175,6 +175,47 @@ public class CSVUtil {
         return request;
     }
 
+    /**
+     * Parse an uploaded phone list (attribute jobs): the 'phone_number' / 'Phone Number'
+     * column when the first line is such a header, otherwise the first column of every line.
+     */
+    public static List<String> parsePhoneList(MultipartFile file) throws IOException {
+
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Phone list file is empty");
+        }
+
+        List<String> phones = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line = reader.readLine();
+            int phoneIndex = 0;
+            if (line != null) {
+                List<String> headers = parseCsvLine(line);
+                int headerIndex = findHeaderIndex(headers, NEW_PHONE_COLUMN);
+                if (headerIndex == -1) headerIndex = findHeaderIndex(headers, LEGACY_PHONE_COLUMN);
+                if (headerIndex != -1) {
+                    phoneIndex = headerIndex;
+                    line = reader.readLine();   // header consumed
+                }
+            }
+
+            for (; line != null; line = reader.readLine()) {
+                if (line.trim().isEmpty()) continue;
+                List<String> values = parseCsvLine(line);
+                if (phoneIndex < values.size()) {
+                    String phone = cleanPhoneNumber(values.get(phoneIndex));
+                    if (!phone.isEmpty()) phones.add(phone);
+                }
+            }
+        }
+
+        log.info("Parsed {} phone numbers from {}", phones.size(), file.getOriginalFilename());
+        return phones;
+    }
+
     /**
      * Parse a single CSV line properly handling quoted values
      */
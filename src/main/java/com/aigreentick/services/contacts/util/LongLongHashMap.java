@@ -0,0 +1,119 @@
+package com.aigreentick.services.contacts.util;
+
+/**
+ * Open-addressing long → long hash map backed by two primitive arrays (linear probing).
+ *
+ * Roughly 2 × 8 bytes per slot with no per-entry objects, versus ~100 bytes per entry for a
+ * HashMap&lt;String, Long&gt;. Key 0 is reserved as the empty-slot marker and cannot be stored.
+ * Not thread-safe; callers synchronize.
+ */
+public class LongLongHashMap {
+
+    public static final long NO_VALUE = -1L;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return the value for key, or {@link #NO_VALUE}
+     */
+    public long get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == 0L) return NO_VALUE;
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == 0L) throw new IllegalArgumentException("Key 0 is reserved");
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0L && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) rehash(keys.length << 1);
+    }
+
+    public void remove(long key) {
+        if (key == 0L) return;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == 0L) return;
+            slot = (slot + 1) & mask;
+        }
+
+        // Backward-shift deletion: move later entries of the probe run into the hole so
+        // lookups never stop early at it (no tombstones needed)
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0L; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            boolean movable = hole <= next
+                    ? home <= hole || home > next
+                    : home <= hole && home > next;
+            if (movable) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0L;
+        values[hole] = 0L;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap footprint of the backing arrays.
+     */
+    public long sizeInBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0L) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0L) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Phone numbers are dense in their low digits; spread them before masking
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,55 @@
+package com.aigreentick.services.contacts.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Produces the trigrams stored in contact_search_tokens.
+ *
+ * A search term of length >= 3 can only be a substring of a value if every trigram of
+ * the term is also a trigram of the value, so "has all of the term's trigrams" is a
+ * superset filter that the (organization_id, token) index can answer. The caller still
+ * applies the original LIKE to the (small) candidate set to drop false positives.
+ */
+public class SearchTokenUtil {
+
+    public static final int GRAM_SIZE = 3;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * All trigrams for a contact: display name and E.164 phone share one token space.
+     */
+    public static Set<String> contactTokens(String displayName, String e164Phone) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokens.addAll(trigrams(displayName));
+        tokens.addAll(trigrams(e164Phone));
+        return tokens;
+    }
+
+    /**
+     * Distinct trigrams of the normalised text (by code point, so surrogate pairs stay whole).
+     * Returns an empty set for null or text shorter than three characters.
+     */
+    public static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) return grams;
+
+        int[] cps = normalize(text).codePoints().toArray();
+        for (int i = 0; i + GRAM_SIZE <= cps.length; i++) {
+            grams.add(new String(cps, i, GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * Lower-case and strip accents, mirroring the accent/case-insensitive column collation.
+     */
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
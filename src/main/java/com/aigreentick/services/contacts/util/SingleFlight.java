@@ -0,0 +1,89 @@
+package com.aigreentick.services.contacts.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with equal keys into one computation: the first caller (the
+ * leader) runs the work, callers arriving while it runs wait for and share its result, or
+ * its exception.
+ *
+ * With a positive ttlMillis a successful result is also kept that long, so a burst of
+ * repeats right after the leader finishes is served without recomputing. At most
+ * maxRetained completed results are kept; beyond that, results are dropped as soon as the
+ * leader finishes. Failures are never retained.
+ */
+public class SingleFlight<K, V> {
+
+    private final long ttlMillis;
+    private final int maxRetained;
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlight(long ttlMillis, int maxRetained) {
+        this.ttlMillis = ttlMillis;
+        this.maxRetained = maxRetained;
+    }
+
+    public V execute(K key, Supplier<V> work) {
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = flights.putIfAbsent(key, flight);
+
+            if (existing == null) {
+                return lead(key, flight, work);
+            }
+            if (existing.expired(System.currentTimeMillis())) {
+                flights.remove(key, existing);
+                continue;
+            }
+            return join(existing.result);
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> work) {
+        V value;
+        try {
+            value = work.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+
+        if (ttlMillis > 0 && flights.size() <= maxRetained) {
+            flight.expiresAt = System.currentTimeMillis() + ttlMillis;
+        } else {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(value);
+
+        if (ttlMillis > 0 && flights.size() > maxRetained) {
+            long now = System.currentTimeMillis();
+            flights.values().removeIf(f -> f.expired(now));
+        }
+        return value;
+    }
+
+    private static <V> V join(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        // 0 while in flight (or not retained)
+        volatile long expiresAt;
+
+        boolean expired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.aigreentick.services.contacts.benchmark;
+
+import com.aigreentick.services.contacts.dto.projection.AttributeValueRow;
+import com.aigreentick.services.contacts.dto.response.ContactInfo;
+import com.aigreentick.services.contacts.util.AttributeValueMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value index + response build of the bulk attribute paths at 100k contacts × 20 keys:
+ * the per-contact HashMap index with builder-made attributes against AttributeValueMatrix.
+ *
+ * Not part of the test run. Run with the GC profiler for allocation per operation:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.aigreentick.services.contacts.benchmark.AttributeValueIndexBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AttributeValueIndexBenchmark {
+
+    @Param("100000")
+    int contacts;
+
+    @Param("20")
+    int keys;
+
+    // Share of (contact, key) cells that have a stored value
+    @Param("0.8")
+    double fill;
+
+    private List<Long> contactIds;
+    private List<String> attributeKeys;
+    private Map<String, Long> keyToDefinitionId;
+    private List<AttributeValueRow> valueRows;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        contactIds = new ArrayList<>(contacts);
+        long id = 1_000_000;
+        for (int i = 0; i < contacts; i++) {
+            id += 1 + random.nextInt(5);
+            contactIds.add(id);
+        }
+        Collections.shuffle(contactIds, random);   // response order is input order, not id order
+
+        attributeKeys = new ArrayList<>(keys);
+        keyToDefinitionId = new HashMap<>();
+        for (int k = 0; k < keys; k++) {
+            attributeKeys.add("key_" + k);
+            keyToDefinitionId.put("key_" + k, 500L + k);
+        }
+
+        valueRows = new ArrayList<>();
+        for (Long contactId : contactIds) {
+            for (int k = 0; k < keys; k++) {
+                if (random.nextDouble() < fill) {
+                    valueRows.add(new AttributeValueRow(contactId, 500L + k, "value-" + random.nextInt(1000),
+                            null, null, null, null, null, null));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ContactInfo> nestedHashMapIndex() {
+        Map<Long, Map<Long, AttributeValueRow>> valueIndex = new HashMap<>();
+        for (AttributeValueRow v : valueRows) {
+            valueIndex
+                    .computeIfAbsent(v.contactId(), k -> new HashMap<>())
+                    .put(v.attributeDefinitionId(), v);
+        }
+
+        List<ContactInfo> result = new ArrayList<>();
+        for (Long contactId : contactIds) {
+            Map<Long, AttributeValueRow> contactValues =
+                    valueIndex.getOrDefault(contactId, Collections.emptyMap());
+            List<ContactInfo.Attribute> attributes = new ArrayList<>();
+            for (String key : attributeKeys) {
+                AttributeValueRow value = contactValues.get(keyToDefinitionId.get(key));
+                attributes.add(ContactInfo.Attribute.builder()
+                        .key(key)
+                        .value(value != null ? value.value() : null)
+                        .build());
+            }
+            result.add(ContactInfo.builder()
+                    .contactId(contactId)
+                    .attributes(attributes)
+                    .build());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ContactInfo> attributeValueMatrix() {
+        long[] rowIds = contactIds.stream().mapToLong(Long::longValue).toArray();
+        long[] columnIds = new long[attributeKeys.size()];
+        for (int i = 0; i < columnIds.length; i++) {
+            columnIds[i] = keyToDefinitionId.get(attributeKeys.get(i));
+        }
+
+        AttributeValueMatrix values = new AttributeValueMatrix(rowIds, columnIds);
+        for (AttributeValueRow v : valueRows) {
+            values.put(v.contactId(), v.attributeDefinitionId(), v.value());
+        }
+
+        List<ContactInfo> result = new ArrayList<>(rowIds.length);
+        for (int row = 0; row < values.rowCount(); row++) {
+            List<ContactInfo.Attribute> attributes = new ArrayList<>(attributeKeys.size());
+            for (int i = 0; i < attributeKeys.size(); i++) {
+                attributes.add(new ContactInfo.Attribute(attributeKeys.get(i), values.get(row, i)));
+            }
+            result.add(ContactInfo.builder()
+                    .contactId(values.rowId(row))
+                    .attributes(attributes)
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Index only, no response objects: the part the two structures actually differ in.
+     */
+    @Benchmark
+    public Object nestedHashMapIndexOnly() {
+        Map<Long, Map<Long, AttributeValueRow>> valueIndex = new HashMap<>();
+        for (AttributeValueRow v : valueRows) {
+            valueIndex
+                    .computeIfAbsent(v.contactId(), k -> new HashMap<>())
+                    .put(v.attributeDefinitionId(), v);
+        }
+        return valueIndex;
+    }
+
+    @Benchmark
+    public Object attributeValueMatrixIndexOnly() {
+        long[] rowIds = contactIds.stream().mapToLong(Long::longValue).toArray();
+        long[] columnIds = new long[attributeKeys.size()];
+        for (int i = 0; i < columnIds.length; i++) {
+            columnIds[i] = keyToDefinitionId.get(attributeKeys.get(i));
+        }
+        AttributeValueMatrix values = new AttributeValueMatrix(rowIds, columnIds);
+        for (AttributeValueRow v : valueRows) {
+            values.put(v.contactId(), v.attributeDefinitionId(), v.value());
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AttributeValueIndexBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,144 @@
+package com.aigreentick.services.contacts.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    // ── Routing ───────────────────────────────────────────────────────────────
+
+    @Test
+    void readOnlyTransactionGoesToUsableReplica() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(monitorReportingLag(1.0));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readWriteTransactionGoesToPrimary() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(monitorReportingLag(1.0));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToPrimaryWhileReplicaLags() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(monitorReportingLag(30.0));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void failedReplicaConnectionFallsBackToPrimaryAndLeavesRotation() throws SQLException {
+        ReplicaLagMonitor monitor = monitorReportingLag(1.0);
+        ReadReplicaRoutingDataSource routing = routing(monitor);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Communications link failure"));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(monitor.isUsable()).isFalse();
+
+        // Stays on the primary without retrying the replica until the next check
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(replica, times(1)).getConnection();
+    }
+
+    // ── Lag monitor ───────────────────────────────────────────────────────────
+
+    @Test
+    void serverWithoutReplicaStatusIsNotUsableByDefault() throws SQLException {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(
+                replicaAnswering(null), Duration.ofSeconds(5), "", false, new SimpleMeterRegistry());
+        monitor.check();
+
+        assertThat(monitor.isUsable()).isFalse();
+    }
+
+    @Test
+    void serverWithoutReplicaStatusIsUsableWhenStandaloneAllowed() throws SQLException {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(
+                replicaAnswering(null), Duration.ofSeconds(5), "", true, new SimpleMeterRegistry());
+        monitor.check();
+
+        assertThat(monitor.isUsable()).isTrue();
+    }
+
+    @Test
+    void failedLagCheckTakesReplicaOutOfRotation() throws SQLException {
+        ReplicaLagMonitor monitor = monitorReportingLag(1.0);
+        when(replica.getConnection()).thenThrow(new SQLException("Communications link failure"));
+        monitor.check();
+
+        assertThat(monitor.isUsable()).isFalse();
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private ReadReplicaRoutingDataSource routing(ReplicaLagMonitor monitor) {
+        return new ReadReplicaRoutingDataSource(primary, replica, monitor, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Monitor whose first check saw the replica the given number of seconds behind (max lag 5 s).
+     */
+    private ReplicaLagMonitor monitorReportingLag(double lagSeconds) throws SQLException {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(
+                replicaAnswering(lagSeconds), Duration.ofSeconds(5), "", false, new SimpleMeterRegistry());
+        monitor.check();
+        // Later connections are the ones under test, not the lag check's
+        reset(replica);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        return monitor;
+    }
+
+    /**
+     * Replica answering SHOW REPLICA STATUS with Seconds_Behind_Source = lagSeconds, or
+     * with no row at all when lagSeconds is null.
+     */
+    private DataSource replicaAnswering(Double lagSeconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(lagSeconds != null);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(1);
+        when(meta.getColumnLabel(1)).thenReturn("Seconds_Behind_Source");
+        when(rs.getDouble(1)).thenReturn(lagSeconds != null ? lagSeconds : 0.0);
+        return replica;
+    }
+}
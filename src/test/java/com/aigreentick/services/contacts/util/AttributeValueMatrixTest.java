@@ -0,0 +1,108 @@
+package com.aigreentick.services.contacts.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttributeValueMatrixTest {
+
+    @Test
+    void valueFillsEveryRowOfARepeatedContact() {
+        // Contact 7 appears three times, e.g. requested under three phone numbers
+        AttributeValueMatrix matrix = new AttributeValueMatrix(new long[]{7, 8, 7, 9, 7}, new long[]{100, 200});
+
+        matrix.put(7, 100, "gold");
+        matrix.put(8, 200, "Pune");
+
+        for (int row : new int[]{0, 2, 4}) {
+            assertThat(matrix.get(row, 0)).as("row %d", row).isEqualTo("gold");
+            assertThat(matrix.get(row, 1)).as("row %d", row).isNull();
+        }
+        assertThat(matrix.get(1, 0)).isNull();
+        assertThat(matrix.get(1, 1)).isEqualTo("Pune");
+        assertThat(matrix.get(3, 0)).isNull();
+        assertThat(matrix.get(3, 1)).isNull();
+    }
+
+    @Test
+    void valueFillsEveryColumnOfARepeatedDefinition() {
+        AttributeValueMatrix matrix = new AttributeValueMatrix(new long[]{1, 2}, new long[]{100, 200, 100});
+
+        matrix.put(2, 100, "gold");
+
+        assertThat(matrix.get(1, 0)).isEqualTo("gold");
+        assertThat(matrix.get(1, 1)).isNull();
+        assertThat(matrix.get(1, 2)).isEqualTo("gold");
+        assertThat(matrix.get(0, 0)).isNull();
+        assertThat(matrix.get(0, 2)).isNull();
+    }
+
+    @Test
+    void manyRowsWithCollidingSlotsAreAllFound() {
+        // Sequential ids, each repeated, well past the initial table size
+        int contacts = 1_000;
+        long[] rowIds = new long[contacts * 2];
+        for (int i = 0; i < rowIds.length; i++) rowIds[i] = (i % contacts) + 1;
+        AttributeValueMatrix matrix = new AttributeValueMatrix(rowIds, new long[]{100});
+
+        for (long id = 1; id <= contacts; id++) matrix.put(id, 100, "v" + id);
+
+        for (int row = 0; row < matrix.rowCount(); row++) {
+            assertThat(matrix.get(row, 0)).isEqualTo("v" + matrix.rowId(row));
+        }
+    }
+
+    @Test
+    void unknownIdsAndNoColumnAreIgnored() {
+        AttributeValueMatrix matrix = new AttributeValueMatrix(
+                new long[]{1, 2}, new long[]{100, AttributeValueMatrix.NO_COLUMN});
+
+        matrix.put(3, 100, "other contact");
+        matrix.put(1, 300, "other key");
+        matrix.put(1, AttributeValueMatrix.NO_COLUMN, "no definition");
+        matrix.put(0, 100, "reserved");
+
+        for (int row = 0; row < matrix.rowCount(); row++) {
+            for (int column = 0; column < matrix.columnCount(); column++) {
+                assertThat(matrix.get(row, column)).isNull();
+            }
+        }
+    }
+
+    @Test
+    void laterPutOverwritesCell() {
+        AttributeValueMatrix matrix = new AttributeValueMatrix(new long[]{1}, new long[]{100});
+
+        matrix.put(1, 100, "silver");
+        matrix.put(1, 100, "gold");
+
+        assertThat(matrix.get(0, 0)).isEqualTo("gold");
+    }
+
+    @Test
+    void rowIdZeroIsRejected() {
+        assertThatThrownBy(() -> new AttributeValueMatrix(new long[]{1, 0}, new long[]{100}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shapeFollowsRequest() {
+        AttributeValueMatrix matrix = new AttributeValueMatrix(new long[]{5, 3, 5}, new long[]{100, 200});
+
+        assertThat(matrix.rowCount()).isEqualTo(3);
+        assertThat(matrix.columnCount()).isEqualTo(2);
+        assertThat(matrix.rowId(0)).isEqualTo(5);
+        assertThat(matrix.rowId(1)).isEqualTo(3);
+        assertThat(matrix.rowId(2)).isEqualTo(5);
+    }
+
+    @Test
+    void emptyRequestHasNoCells() {
+        AttributeValueMatrix matrix = new AttributeValueMatrix(new long[0], new long[]{100});
+
+        matrix.put(1, 100, "gold");
+
+        assertThat(matrix.rowCount()).isZero();
+    }
+}
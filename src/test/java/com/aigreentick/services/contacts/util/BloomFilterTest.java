@@ -0,0 +1,94 @@
+package com.aigreentick.services.contacts.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    private static final int ENTRIES = 100_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    void everyPutValueMightBeContained() {
+        BloomFilter filter = BloomFilter.forExpectedEntries(ENTRIES, FALSE_POSITIVE_PROBABILITY);
+        List<String> phones = phones(new Random(1), ENTRIES);
+        phones.forEach(filter::put);
+
+        for (String phone : phones) {
+            assertThat(filter.mightContain(phone)).as(phone).isTrue();
+        }
+    }
+
+    @Test
+    void noFalseNegativesPastExpectedEntries() {
+        // Over capacity the false-positive rate degrades, but a put value is still never missed
+        BloomFilter filter = BloomFilter.forExpectedEntries(1_000, FALSE_POSITIVE_PROBABILITY);
+        List<String> phones = phones(new Random(2), 20_000);
+        phones.forEach(filter::put);
+
+        assertThat(phones).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void noFalseNegativesWithConcurrentPuts() throws Exception {
+        BloomFilter filter = BloomFilter.forExpectedEntries(ENTRIES, FALSE_POSITIVE_PROBABILITY);
+        List<String> phones = phones(new Random(3), ENTRIES);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            int slice = phones.size() / 8;
+            for (int t = 0; t < 8; t++) {
+                List<String> part = phones.subList(t * slice, t == 7 ? phones.size() : (t + 1) * slice);
+                futures.add(executor.submit(() -> part.forEach(filter::put)));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+
+        assertThat(phones).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.forExpectedEntries(ENTRIES, FALSE_POSITIVE_PROBABILITY);
+        Random random = new Random(4);
+        Set<String> members = new HashSet<>(phones(random, ENTRIES));
+        members.forEach(filter::put);
+
+        int positives = 0;
+        int absent = 0;
+        while (absent < ENTRIES) {
+            String phone = phone(random);
+            if (members.contains(phone)) continue;
+            absent++;
+            if (filter.mightContain(phone)) positives++;
+        }
+
+        assertThat((double) positives / absent).isLessThan(FALSE_POSITIVE_PROBABILITY * 2);
+        assertThat(filter.expectedFalsePositiveProbability()).isLessThan(FALSE_POSITIVE_PROBABILITY * 2);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.forExpectedEntries(ENTRIES, FALSE_POSITIVE_PROBABILITY);
+
+        assertThat(phones(new Random(5), 1_000)).noneMatch(filter::mightContain);
+        assertThat(filter.expectedFalsePositiveProbability()).isZero();
+    }
+
+    private static List<String> phones(Random random, int count) {
+        List<String> phones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) phones.add(phone(random));
+        return phones;
+    }
+
+    // E.164 like the stored values: +91 and ten digits
+    private static String phone(Random random) {
+        return "+91" + (6_000_000_000L + (long) (random.nextDouble() * 3_999_999_999L));
+    }
+}
@@ -0,0 +1,133 @@
+package com.aigreentick.services.contacts.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    @Test
+    void concurrentCallersShareOneResult() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>(0, 100);
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(CALLERS);
+
+        List<Object> results = runConcurrently(arrived, () -> singleFlight.execute("key", () -> {
+            invocations.incrementAndGet();
+            awaitOthers(arrived);
+            return new Object();
+        }));
+
+        assertThat(invocations).hasValue(1);
+        assertThat(results).hasSize(CALLERS);
+        assertThat(results).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+    }
+
+    @Test
+    void concurrentCallersShareOneException() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>(0, 100);
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(CALLERS);
+
+        List<Object> results = runConcurrently(arrived, () -> {
+            try {
+                return singleFlight.execute("key", () -> {
+                    invocations.incrementAndGet();
+                    awaitOthers(arrived);
+                    throw new IllegalStateException("lookup failed");
+                });
+            } catch (IllegalStateException e) {
+                return e;
+            }
+        });
+
+        assertThat(invocations).hasValue(1);
+        assertThat(results).allSatisfy(result -> assertThat(result)
+                .isInstanceOf(IllegalStateException.class)
+                .isSameAs(results.get(0)));
+    }
+
+    @Test
+    void failureIsNotRetained() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(60_000, 100);
+
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("lookup failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void resultIsRetainedForTtl() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(60_000, 100);
+        AtomicInteger invocations = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "v" + invocations.incrementAndGet());
+        String repeat = singleFlight.execute("key", () -> "v" + invocations.incrementAndGet());
+
+        assertThat(repeat).isEqualTo("v1");
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void withoutTtlSequentialCallsRecompute() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(0, 100);
+        AtomicInteger invocations = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "v" + invocations.incrementAndGet());
+        String repeat = singleFlight.execute("key", () -> "v" + invocations.incrementAndGet());
+
+        assertThat(repeat).isEqualTo("v2");
+    }
+
+    @Test
+    void differentKeysDoNotShare() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(60_000, 100);
+
+        assertThat(singleFlight.execute("a", () -> "A")).isEqualTo("A");
+        assertThat(singleFlight.execute("b", () -> "B")).isEqualTo("B");
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    /**
+     * Run call on CALLERS threads at once; each counts down arrived just before calling.
+     */
+    private static List<Object> runConcurrently(CountDownLatch arrived, Callable<Object> call) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    arrived.countDown();
+                    return call.call();
+                }));
+            }
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Hold the leader until every caller has entered execute() and had time to join.
+     */
+    private static void awaitOthers(CountDownLatch arrived) {
+        try {
+            arrived.await(10, TimeUnit.SECONDS);
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}